@@ -1,6 +1,9 @@
 plugins {
     id("java")
     id("com.github.johnrengelman.shadow") version "8.1.1"
+
+    // Microbenchmarks in src/jmh (./gradlew jmh)
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.hasirciogluhq"
@@ -45,6 +48,17 @@ dependencies {
 
     // JSON Serializer
     implementation("com.google.code.gson:gson:2.10.1")
+
+    // Tests (and benchmarks, which share the test classpath and resources)
+    testImplementation("org.spigotmc:spigot-api:1.20.4-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.1"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    includeTests.set(true)
 }
 
 tasks {
@@ -77,6 +91,14 @@ tasks {
     compileJava {
         options.encoding = "UTF-8"
     }
+
+    compileTestJava {
+        options.encoding = "UTF-8"
+    }
+
+    test {
+        useJUnitPlatform()
+    }
 }
 
 tasks.register("deploy") {
@@ -0,0 +1,53 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classify the whole console corpus: the Aho-Corasick classifier against the
+ * lower-case + contains/startsWith chain it replaced
+ * Run with ./gradlew jmh; add -prof gc to compare allocation per line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConsoleClassifierBenchmark {
+    private String[] lines;
+    private ConsoleClassifier classifier;
+
+    @Setup
+    public void setup() {
+        List<String> corpus = ConsoleCorpus.lines();
+        lines = corpus.toArray(new String[0]);
+        classifier = ConsoleClassifier.defaults();
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(ConsoleCorpus.detectType(line));
+        }
+    }
+
+    @Benchmark
+    public void ahoCorasick(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(classifier.classify(line));
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package com.hasirciogluhq.easymcadmin;
 
 import com.hasirciogluhq.easymcadmin.commands.MainCommand;
+import com.hasirciogluhq.easymcadmin.console.ConsolePipeline;
 import com.hasirciogluhq.easymcadmin.economy.EconomyManager;
 import com.hasirciogluhq.easymcadmin.listeners.InventoryChangeListener;
 import com.hasirciogluhq.easymcadmin.listeners.PlayerListListener;
+import com.hasirciogluhq.easymcadmin.metrics.GcMonitor;
+import com.hasirciogluhq.easymcadmin.jfr.JfrRecorder;
+import com.hasirciogluhq.easymcadmin.metrics.LagWatchdog;
+import com.hasirciogluhq.easymcadmin.metrics.MetricsHistory;
+import com.hasirciogluhq.easymcadmin.metrics.OverheadMonitor;
 import com.hasirciogluhq.easymcadmin.metrics.MetricsScheduler;
+import com.hasirciogluhq.easymcadmin.metrics.ServerMetricsCollector;
+import com.hasirciogluhq.easymcadmin.metrics.TickMonitor;
+import com.hasirciogluhq.easymcadmin.metrics.WorldCensus;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
+import com.hasirciogluhq.easymcadmin.packets.ServerInfoPacket;
+import com.hasirciogluhq.easymcadmin.profiler.ListenerProfiler;
+import com.hasirciogluhq.easymcadmin.profiler.SamplingProfiler;
+import com.hasirciogluhq.easymcadmin.rpc.RpcAdmissionController;
+import com.hasirciogluhq.easymcadmin.rpc.RpcResponseCache;
 import com.hasirciogluhq.easymcadmin.rpc.RpcStore;
+import com.hasirciogluhq.easymcadmin.rpc.RpcStreamManager;
+import com.hasirciogluhq.easymcadmin.scheduler.MainThreadQueue;
 import com.hasirciogluhq.easymcadmin.transport.TransportHandler;
 import com.hasirciogluhq.easymcadmin.transport.TransportInterface;
 import com.hasirciogluhq.easymcadmin.transport.TransportManager;
@@ -19,8 +35,10 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Easy MC Admin - Universal Minecraft Server Management Plugin
@@ -33,12 +51,28 @@ public class EasyMcAdmin extends JavaPlugin {
     private static EasyMcAdmin instance;
     private String serverId;
     private ConsoleOutputHandler consoleHandler;
+    private ConsolePipeline consolePipeline;
     private MetricsScheduler metricsScheduler;
+    private ServerMetricsCollector metricsCollector;
+    private TickMonitor tickMonitor;
+    private GcMonitor gcMonitor;
+    private WorldCensus worldCensus;
+    private SamplingProfiler samplingProfiler;
+    private LagWatchdog lagWatchdog;
+    private ListenerProfiler listenerProfiler;
+    private OverheadMonitor overheadMonitor;
+    private JfrRecorder jfrRecorder;
+    private MetricsHistory metricsHistory;
     private TransportManager transportManager;
     private TransportInterface transport;
     private PlayerListListener playerListListener;
     private InventoryChangeListener inventoryChangeListener;
     private EconomyManager economyManager;
+    private RpcAdmissionController rpcAdmissionController;
+    private RpcResponseCache rpcResponseCache;
+    private MainThreadQueue mainThreadQueue;
+    private RpcStreamManager rpcStreamManager;
+    private final AtomicBoolean connecting = new AtomicBoolean(false);
 
     @Override
     public void onEnable() {
@@ -57,18 +91,115 @@ public class EasyMcAdmin extends JavaPlugin {
             getLogger().info("Generated new server ID: " + serverId);
         }
 
+        // Measure the plugin's own main-thread time per tick
+        overheadMonitor = new OverheadMonitor(this, Thread.currentThread(),
+                getConfig().getBoolean("performance.self-overhead.enabled", true),
+                getConfig().getDouble("performance.self-overhead.warn-budget-ms", 5.0),
+                getConfig().getLong("performance.self-overhead.warn-interval-seconds", 60));
+        overheadMonitor.start();
+
+        // Initialize main-thread work queue (drained under a per-tick budget)
+        mainThreadQueue = new MainThreadQueue(this, getConfig().getDouble("performance.main-thread-budget-ms", 2.0));
+        mainThreadQueue.start();
+
+        // Record every tick's duration for MSPT percentiles
+        tickMonitor = new TickMonitor(this);
+        tickMonitor.start();
+
+        // Resolve metric sources once; tick metrics are one of them
+        metricsCollector = new ServerMetricsCollector(this, getConfig().getBoolean("metrics.send-legacy-fields", false));
+        metricsCollector.register(tickMonitor);
+        metricsCollector.register(overheadMonitor);
+
+        // GC pauses arrive as JMX notifications; pools are sampled per packet
+        gcMonitor = new GcMonitor();
+        metricsCollector.register(gcMonitor);
+
+        // Chunk/entity counts, walked a slice per tick
+        if (getConfig().getBoolean("metrics.census.enabled", true)) {
+            worldCensus = new WorldCensus(this, getConfig().getDouble("metrics.census.max-tick-ms", 0.5),
+                    getConfig().getLong("metrics.census.interval-seconds", 10));
+            worldCensus.start();
+            metricsCollector.register(worldCensus);
+        }
+
+        // Main-thread sampling profiler, started on demand over RPC
+        if (getConfig().getBoolean("profiler.enabled", true)) {
+            samplingProfiler = new SamplingProfiler(Thread.currentThread(),
+                    getConfig().getInt("profiler.max-nodes", 65536),
+                    getConfig().getLong("profiler.max-duration-seconds", 300) * 1000L,
+                    getConfig().getDouble("profiler.default-interval-ms", 10.0),
+                    getConfig().getInt("profiler.max-depth", 256));
+            metricsCollector.register(samplingProfiler);
+        }
+
+        // Capture the main thread's stack while a tick is stuck
+        if (getConfig().getBoolean("watchdog.enabled", true)) {
+            lagWatchdog = new LagWatchdog(this, tickMonitor, Thread.currentThread(),
+                    getConfig().getLong("watchdog.threshold-ms", 500),
+                    getConfig().getLong("watchdog.capture-interval-ms", 250),
+                    getConfig().getInt("watchdog.max-captures", 20),
+                    getConfig().getInt("watchdog.max-depth", 64),
+                    getConfig().getInt("watchdog.ring-size", 32));
+            lagWatchdog.start();
+            metricsCollector.register(lagWatchdog);
+        }
+
+        // Listener time per plugin; opt-in, also toggled over RPC
+        listenerProfiler = new ListenerProfiler(getConfig().getInt("listener-timings.sample-every", 10));
+        metricsCollector.register(listenerProfiler);
+        if (getConfig().getBoolean("listener-timings.enabled", false)) {
+            // First tick: every plugin has registered its listeners by then
+            getServer().getScheduler().runTask(this, () -> listenerProfiler.enable(0));
+        }
+
+        // Flight Recorder recordings, started and collected over RPC
+        if (getConfig().getBoolean("jfr.enabled", true)) {
+            jfrRecorder = new JfrRecorder(new File(getDataFolder(), "jfr"),
+                    getConfig().getLong("jfr.max-duration-seconds", 600),
+                    getConfig().getLong("jfr.max-size-mb", 256));
+        }
+
         // Initialize RPC Store
         RpcStore.initRpc().start(this);
 
+        // Initialize inbound RPC admission limits
+        rpcAdmissionController = new RpcAdmissionController(getConfig().getConfigurationSection("rpc.limits"));
+
+        // Initialize response cache for retried RPCs
+        rpcResponseCache = new RpcResponseCache(
+                getConfig().getBoolean("rpc.response-cache.enabled", true),
+                getConfig().getInt("rpc.response-cache.max-entries", 256),
+                getConfig().getLong("rpc.response-cache.max-bytes", 4L * 1024 * 1024),
+                getConfig().getLong("rpc.response-cache.ttl-seconds", 60));
+
         // Initialize Transport Manager
         transport = new TcpTransport(this, getConfig().getString("transport.host", "localhost"),
                 getConfig().getInt("transport.port", 8798));
 
         transportManager = new TransportManager(transport);
 
+        // Initialize streaming RPC responses
+        rpcStreamManager = new RpcStreamManager(transportManager);
+
         // Setup packet handler for incoming packets from backend
         transport.setTransportListener(new TransportHandler(transportManager));
 
+        // Local metrics history, kept while disconnected (metrics.history RPC)
+        if (getConfig().getBoolean("metrics.history.enabled", true)) {
+            File historyFile = getConfig().getBoolean("metrics.history.persist", false)
+                    ? new File(getDataFolder(), "metrics-history.bin")
+                    : null;
+            try {
+                metricsHistory = new MetricsHistory(getConfig().getInt("metrics.history.max-series", 48),
+                        getConfig().getInt("metrics.history.minute-retention-hours", 24),
+                        getConfig().getInt("metrics.history.hour-retention-days", 30),
+                        historyFile);
+            } catch (IOException e) {
+                getLogger().warning("Failed to open metrics history: " + e.getMessage());
+            }
+        }
+
         // Initialize metrics scheduler
         metricsScheduler = new MetricsScheduler(this, new MetricsScheduler.TransportSender() {
             @Override
@@ -89,7 +220,8 @@ public class EasyMcAdmin extends JavaPlugin {
             public boolean isAuthenticated() {
                 return transportManager.isAuthenticated();
             }
-        });
+        }, getConfig().getConfigurationSection("metrics"), metricsHistory);
+        metricsScheduler.startSampling();
 
         // Setup console output handler to intercept server logs
         setupConsoleHandler();
@@ -123,7 +255,66 @@ public class EasyMcAdmin extends JavaPlugin {
     public void onDisable() {
         // Stop metrics scheduler
         if (metricsScheduler != null) {
-            metricsScheduler.stop();
+            metricsScheduler.shutdown();
+        }
+
+        // Flush the history file
+        if (metricsHistory != null) {
+            metricsHistory.close();
+        }
+
+        // Stop tick monitor
+        if (tickMonitor != null) {
+            tickMonitor.stop();
+        }
+
+        // Stop overhead monitor
+        if (overheadMonitor != null) {
+            overheadMonitor.stop();
+        }
+
+        // Restore the original event listeners
+        if (listenerProfiler != null) {
+            listenerProfiler.disable();
+        }
+
+        // Drop an uncollected recording
+        if (jfrRecorder != null) {
+            jfrRecorder.discard();
+        }
+
+        // Stop lag watchdog
+        if (lagWatchdog != null) {
+            lagWatchdog.stop();
+        }
+
+        // Stop a running profile
+        if (samplingProfiler != null) {
+            try {
+                samplingProfiler.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Stop world census
+        if (worldCensus != null) {
+            worldCensus.stop();
+        }
+
+        // Stop GC notifications (the JVM would keep this listener alive)
+        if (gcMonitor != null) {
+            gcMonitor.stop();
+        }
+
+        // Stop streaming RPC responses
+        if (rpcStreamManager != null) {
+            rpcStreamManager.shutdown();
+        }
+
+        // Stop main-thread work queue
+        if (mainThreadQueue != null) {
+            mainThreadQueue.stop();
         }
 
         // Stop RPC store cleanup task
@@ -150,6 +341,9 @@ public class EasyMcAdmin extends JavaPlugin {
             }
         } catch (Throwable ignored) {
         }
+        if (consolePipeline != null) {
+            consolePipeline.stop();
+        }
 
         getLogger().info("Easy MC Admin has been disabled!");
     }
@@ -160,7 +354,10 @@ public class EasyMcAdmin extends JavaPlugin {
 
     private void setupConsoleHandler() {
         try {
-            consoleHandler = new ConsoleOutputHandler(this, transportManager);
+            consolePipeline = new ConsolePipeline(this, transportManager);
+            consolePipeline.start();
+
+            consoleHandler = new ConsoleOutputHandler(this, consolePipeline);
             consoleHandler.start();
 
             Logger root = (Logger) LogManager.getRootLogger();
@@ -183,6 +380,33 @@ public class EasyMcAdmin extends JavaPlugin {
         getCommand("easymcadmin").setTabCompleter(mainCommand);
     }
 
+    /**
+     * Connect the transport on an async thread
+     * The TCP connect (up to 10 seconds) and the auth request never run on the
+     * main thread. Does nothing while a connection attempt is in progress.
+     */
+    public void connectAsync() {
+        if (!connecting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getServer().getScheduler().runTaskAsynchronously(this, () -> {
+                try {
+                    if (!transportManager.isConnected()) {
+                        transportManager.connect();
+                    }
+                } catch (IOException e) {
+                    getLogger().warning("Failed to connect to transport: " + e.getMessage());
+                } finally {
+                    connecting.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Plugin disabled; nothing will run the attempt
+            connecting.set(false);
+        }
+    }
+
     /**
      * Start automatic connection task (tries to connect every 1 second)
      */
@@ -199,11 +423,7 @@ public class EasyMcAdmin extends JavaPlugin {
                     String token = getConfig().getString("server.token", "");
                     if (token != null && !token.isEmpty()) {
                         // Connect Transport
-                        try {
-                            transportManager.connect();
-                        } catch (IOException e) {
-                            getLogger().warning("Failed to connect to transport: " + e.getMessage());
-                        }
+                        connectAsync();
                     }
                 } else {
                     // If connected, ensure metrics scheduler is running
@@ -250,6 +470,141 @@ public class EasyMcAdmin extends JavaPlugin {
         return economyManager;
     }
 
+    /**
+     * Get the console output pipeline
+     * 
+     * @return ConsolePipeline instance, null if the console handler failed to set up
+     */
+    public ConsolePipeline getConsolePipeline() {
+        return consolePipeline;
+    }
+
+    /**
+     * Get the inbound RPC admission controller
+     * 
+     * @return RpcAdmissionController instance
+     */
+    public RpcAdmissionController getRpcAdmissionController() {
+        return rpcAdmissionController;
+    }
+
+    /**
+     * Get the response cache for retried RPCs
+     * 
+     * @return RpcResponseCache instance
+     */
+    public RpcResponseCache getRpcResponseCache() {
+        return rpcResponseCache;
+    }
+
+    /**
+     * Get the metrics collector
+     * 
+     * @return ServerMetricsCollector instance
+     */
+    public ServerMetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    /**
+     * Get the GC monitor
+     * 
+     * @return GcMonitor instance
+     */
+    public GcMonitor getGcMonitor() {
+        return gcMonitor;
+    }
+
+    /**
+     * Get the world census
+     * 
+     * @return WorldCensus instance, or null if disabled
+     */
+    public WorldCensus getWorldCensus() {
+        return worldCensus;
+    }
+
+    /**
+     * Get the sampling profiler
+     * 
+     * @return SamplingProfiler instance, or null if disabled
+     */
+    public SamplingProfiler getSamplingProfiler() {
+        return samplingProfiler;
+    }
+
+    /**
+     * Get the lag watchdog
+     * 
+     * @return LagWatchdog instance, or null if disabled
+     */
+    public LagWatchdog getLagWatchdog() {
+        return lagWatchdog;
+    }
+
+    /**
+     * Get the listener profiler
+     * 
+     * @return ListenerProfiler instance
+     */
+    public ListenerProfiler getListenerProfiler() {
+        return listenerProfiler;
+    }
+
+    /**
+     * Get the overhead monitor
+     * 
+     * @return OverheadMonitor instance
+     */
+    public OverheadMonitor getOverheadMonitor() {
+        return overheadMonitor;
+    }
+
+    /**
+     * Get the JFR recorder
+     * 
+     * @return JfrRecorder instance, or null if disabled
+     */
+    public JfrRecorder getJfrRecorder() {
+        return jfrRecorder;
+    }
+
+    /**
+     * Get the metrics history
+     * 
+     * @return MetricsHistory instance, or null if disabled
+     */
+    public MetricsHistory getMetricsHistory() {
+        return metricsHistory;
+    }
+
+    /**
+     * Get the tick monitor
+     * 
+     * @return TickMonitor instance
+     */
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    /**
+     * Get the main-thread work queue
+     * 
+     * @return MainThreadQueue instance
+     */
+    public MainThreadQueue getMainThreadQueue() {
+        return mainThreadQueue;
+    }
+
+    /**
+     * Get the streaming RPC response manager
+     * 
+     * @return RpcStreamManager instance
+     */
+    public RpcStreamManager getRpcStreamManager() {
+        return rpcStreamManager;
+    }
+
     /**
      * Get the plugin instance
      * 
@@ -288,18 +643,43 @@ public class EasyMcAdmin extends JavaPlugin {
 
     /**
      * Start metrics scheduler when Transport connection is established
+     * A resumed session keeps the backend's state, so only what changed for
+     * online players is sent; a new session gets the full sync.
+     *
+     * @param resumed Whether the backend resumed the previous session
      */
-    public void onTransportConnectedAndAuthenticated() {
+    public void onTransportConnectedAndAuthenticated(boolean resumed) {
+        if (!resumed && metricsCollector != null) {
+            // Static info goes once per session instead of in every metrics packet
+            try {
+                transportManager.sendPacket(new ServerInfoPacket(metricsCollector.collectStatic()));
+            } catch (IOException e) {
+                getLogger().warning("Failed to send server info: " + e.getMessage());
+            }
+        }
         if (metricsScheduler != null && !metricsScheduler.isRunning()) {
             metricsScheduler.start();
         }
 
-        // Send all offline players in chunks after connection is established
-        // Wait a bit for server to be fully ready
+        if (!resumed && rpcResponseCache != null) {
+            // Request IDs from the old session mean nothing to a new one
+            rpcResponseCache.clear();
+        }
+        if (!resumed && consolePipeline != null) {
+            // A new session has no console viewers yet; they subscribe again
+            consolePipeline.getSubscriptions().clear();
+        }
+
+        // Queued as bulk work; the queue only drains once the server is ticking
         if (playerListListener != null) {
-            getServer().getScheduler().runTaskLater(this, () -> {
-                playerListListener.sendAllOfflinePlayers();
-            }, 60L); // Wait 3 seconds (60 ticks) for server to be ready
+            mainThreadQueue.submit(MainThreadQueue.Priority.LOW, () -> {
+                if (resumed) {
+                    playerListListener.sendOnlinePlayerChanges();
+                } else {
+                    playerListListener.resetInitialSync();
+                    playerListListener.sendAllOfflinePlayers();
+                }
+            });
         }
     }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ public class MainCommand implements CommandExecutor, TabCompleter {
         
         // Register subcommands
         registerSubCommand("setToken", new SetTokenSubCommand(plugin));
+        registerSubCommand("stats", new StatsSubCommand(plugin));
         // Add more subcommands here in the future
     }
     
@@ -4,7 +4,6 @@ import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,13 +42,8 @@ public class SetTokenSubCommand implements SubCommand {
             sender.sendMessage("[EasyMcAdmin] §aToken set successfully!");
             sender.sendMessage("[EasyMcAdmin] §7Attempting to connect...");
 
-            // Try to connect immediately
-            try {
-                plugin.getTransportManager().connect();
-            } catch (IOException e) {
-                sender.sendMessage("[EasyMcAdmin] §cFailed to connect: " + e.getMessage());
-                return true;
-            }
+            // Try to connect immediately (off the main thread)
+            plugin.connectAsync();
 
             // Check connection status after a short delay
             new org.bukkit.scheduler.BukkitRunnable() {
@@ -0,0 +1,99 @@
+package com.hasirciogluhq.easymcadmin.commands;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.rpc.RpcMetrics;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Subcommand to show runtime statistics
+ * Usage: /easymcadmin stats rpc
+ */
+public class StatsSubCommand implements SubCommand {
+
+    private final EasyMcAdmin plugin;
+
+    public StatsSubCommand(EasyMcAdmin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 1 && args[0].equalsIgnoreCase("rpc")) {
+            sendRpcStats(sender);
+            return true;
+        }
+
+        sender.sendMessage("[EasyMcAdmin] §cUsage: /easymcadmin stats rpc");
+        return true;
+    }
+
+    private void sendRpcStats(CommandSender sender) {
+        JsonObject cache = plugin.getRpcResponseCache().toJson();
+        sender.sendMessage("[EasyMcAdmin] §eRPC response cache: §f" + cache.get("entries").getAsInt()
+                + " §7entries, §f" + cache.get("bytes").getAsLong() / 1024 + " KB§7, hit rate §f"
+                + String.format("%.1f%%", cache.get("hit_rate").getAsDouble() * 100));
+
+        JsonObject actions = RpcMetrics.toJson();
+        if (actions.size() == 0) {
+            sender.sendMessage("[EasyMcAdmin] §7No RPC traffic recorded yet.");
+            return;
+        }
+
+        sender.sendMessage("[EasyMcAdmin] §eRPC latency (ms, p50/p99/max):");
+        for (Map.Entry<String, JsonElement> entry : actions.entrySet()) {
+            JsonObject outbound = entry.getValue().getAsJsonObject().getAsJsonObject("outbound");
+            JsonObject inbound = entry.getValue().getAsJsonObject().getAsJsonObject("inbound");
+
+            sender.sendMessage("§f" + entry.getKey());
+            JsonObject rtt = outbound.getAsJsonObject("rtt_us");
+            if (rtt.get("count").getAsLong() > 0 || outbound.get("in_flight").getAsInt() > 0) {
+                sender.sendMessage("  §7out: §f" + rtt.get("count").getAsLong() + " §7rtt " + latency(rtt)
+                        + " §7in-flight §f" + outbound.get("in_flight").getAsInt()
+                        + " §7timeouts §f" + outbound.get("timeouts").getAsLong()
+                        + " §7errors §f" + outbound.get("errors").getAsLong());
+            }
+            JsonObject execute = inbound.getAsJsonObject("execute_us");
+            if (execute.get("count").getAsLong() > 0 || inbound.get("in_flight").getAsInt() > 0) {
+                sender.sendMessage("  §7in: §f" + execute.get("count").getAsLong()
+                        + " §7wait " + latency(inbound.getAsJsonObject("queue_wait_us"))
+                        + " §7exec " + latency(execute)
+                        + " §7in-flight §f" + inbound.get("in_flight").getAsInt()
+                        + " §7errors §f" + inbound.get("errors").getAsLong());
+            }
+        }
+    }
+
+    private static String latency(JsonObject histogram) {
+        return "§f" + millis(histogram, "p50") + "/" + millis(histogram, "p99") + "/" + millis(histogram, "max");
+    }
+
+    private static String millis(JsonObject histogram, String key) {
+        return String.format("%.2f", histogram.get(key).getAsLong() / 1000.0);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1 && "rpc".startsWith(args[0].toLowerCase())) {
+            completions.add("rpc");
+        }
+        return completions;
+    }
+
+    @Override
+    public String getPermission() {
+        return "easymcadmin.admin";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Show runtime statistics (rpc)";
+    }
+}
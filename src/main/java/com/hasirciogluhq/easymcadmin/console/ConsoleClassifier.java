@@ -0,0 +1,316 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Console Classifier - assigns a type (error, command, server, ...) to console lines
+ * Rules are checked in order and the first matching rule wins. A rule
+ * matches if the line contains any of its patterns, or starts with any of
+ * its prefixes, ignoring case.
+ *
+ * All contains-patterns are compiled into one Aho-Corasick automaton with a
+ * full transition table, so a line is classified in a single pass over its
+ * chars without allocating. Instances are immutable; new rules (config or
+ * backend push) replace the whole classifier.
+ *
+ * Config (config.yml):
+ * console.classifier.default-type
+ * console.classifier.rules.&lt;type&gt;.{contains, prefix}
+ */
+public final class ConsoleClassifier {
+    private static final int NO_RULE = Integer.MAX_VALUE;
+
+    private final String[] types;
+    private final String defaultType;
+
+    // Aho-Corasick automaton. States are stored pre-multiplied by the alphabet
+    // size: transitions[state + charClass] is the next state, bestRule[state]
+    // the highest-priority rule matched on reaching it.
+    private final int[] transitions;
+    private final int[] bestRule;
+    private final int alphabetSize;
+    // ASCII chars of both cases map to the class of the lower-case char
+    private final int[] asciiClasses;
+    private final char[] otherChars;
+    private final int[] otherClasses;
+
+    // Prefix patterns, lower-cased, with their rule index
+    private final String[] prefixes;
+    private final int[] prefixRules;
+
+    /**
+     * One classification rule
+     */
+    public static class Rule {
+        final String type;
+        final List<String> contains;
+        final List<String> prefix;
+
+        public Rule(String type, List<String> contains, List<String> prefix) {
+            this.type = type;
+            this.contains = contains;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Create a classifier
+     *
+     * @param rules       Rules in priority order
+     * @param defaultType Type for lines no rule matches
+     */
+    public ConsoleClassifier(List<Rule> rules, String defaultType) {
+        this.defaultType = defaultType;
+        this.types = new String[rules.size()];
+
+        List<String> patterns = new ArrayList<>();
+        List<Integer> patternRules = new ArrayList<>();
+        List<String> prefixList = new ArrayList<>();
+        List<Integer> prefixRuleList = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            types[i] = rule.type;
+            for (String pattern : rule.contains) {
+                if (!pattern.isEmpty()) {
+                    patterns.add(lowerCase(pattern));
+                    patternRules.add(i);
+                }
+            }
+            for (String prefix : rule.prefix) {
+                if (!prefix.isEmpty()) {
+                    prefixList.add(lowerCase(prefix));
+                    prefixRuleList.add(i);
+                }
+            }
+        }
+        this.prefixes = prefixList.toArray(new String[0]);
+        this.prefixRules = prefixRuleList.stream().mapToInt(Integer::intValue).toArray();
+
+        // Alphabet: class 0 is "any char no pattern uses"
+        int[] ascii = new int[128];
+        Map<Character, Integer> other = new HashMap<>();
+        int classes = 1;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 128) {
+                    if (ascii[c] == 0) {
+                        ascii[c] = classes++;
+                    }
+                } else if (!other.containsKey(c)) {
+                    other.put(c, classes++);
+                }
+            }
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ascii[c] = ascii[Character.toLowerCase(c)];
+        }
+        this.alphabetSize = classes;
+        this.asciiClasses = ascii;
+        this.otherChars = new char[other.size()];
+        this.otherClasses = new int[other.size()];
+        List<Character> sortedOther = new ArrayList<>(other.keySet());
+        sortedOther.sort(null);
+        for (int i = 0; i < sortedOther.size(); i++) {
+            otherChars[i] = sortedOther.get(i);
+            otherClasses[i] = other.get(sortedOther.get(i));
+        }
+
+        // Trie
+        List<int[]> gotoRows = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotoRows.add(newRow());
+        outputs.add(NO_RULE);
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int charClass = classOf(pattern.charAt(i));
+                int next = gotoRows.get(state)[charClass];
+                if (next < 0) {
+                    next = gotoRows.size();
+                    gotoRows.add(newRow());
+                    outputs.add(NO_RULE);
+                    gotoRows.get(state)[charClass] = next;
+                }
+                state = next;
+            }
+            outputs.set(state, Math.min(outputs.get(state), patternRules.get(p)));
+        }
+
+        // Failure links folded into a full transition table (BFS order)
+        int stateCount = gotoRows.size();
+        int[] next = new int[stateCount * alphabetSize];
+        int[] best = new int[stateCount];
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        best[0] = outputs.get(0);
+        for (int c = 0; c < alphabetSize; c++) {
+            int child = gotoRows.get(0)[c];
+            if (child < 0) {
+                next[c] = 0;
+            } else {
+                next[c] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            best[state] = Math.min(outputs.get(state), best[failure[state]]);
+            for (int c = 0; c < alphabetSize; c++) {
+                int child = gotoRows.get(state)[c];
+                if (child < 0) {
+                    next[state * alphabetSize + c] = next[failure[state] * alphabetSize + c];
+                } else {
+                    next[state * alphabetSize + c] = child;
+                    failure[child] = next[failure[state] * alphabetSize + c];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.transitions = new int[next.length];
+        this.bestRule = new int[next.length];
+        for (int i = 0; i < next.length; i++) {
+            transitions[i] = next[i] * alphabetSize;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            bestRule[state * alphabetSize] = best[state];
+        }
+    }
+
+    /**
+     * Classify a console line
+     *
+     * @param message Console line
+     * @return Type of the first matching rule, or the default type
+     */
+    public String classify(String message) {
+        int best = NO_RULE;
+
+        for (int i = 0; i < prefixes.length; i++) {
+            if (prefixRules[i] < best && message.regionMatches(true, 0, prefixes[i], 0, prefixes[i].length())) {
+                best = prefixRules[i];
+            }
+        }
+
+        int[] table = transitions;
+        int[] rules = bestRule;
+        int[] ascii = asciiClasses;
+        int state = 0;
+        int length = message.length();
+        for (int i = 0; i < length && best > 0; i++) {
+            char c = message.charAt(i);
+            state = table[state + (c < 128 ? ascii[c] : classOf(Character.toLowerCase(c)))];
+            if (rules[state] < best) {
+                best = rules[state];
+            }
+        }
+
+        return best == NO_RULE ? defaultType : types[best];
+    }
+
+    /**
+     * Built-in rules, same as the original detectType()
+     *
+     * @return Default classifier
+     */
+    public static ConsoleClassifier defaults() {
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new Rule("error", Arrays.asList("exception", "error"), new ArrayList<>()));
+        rules.add(new Rule("command", new ArrayList<>(), Arrays.asList("> ")));
+        rules.add(new Rule("server", Arrays.asList("starting", "done", "stopping"), new ArrayList<>()));
+        return new ConsoleClassifier(rules, "log");
+    }
+
+    /**
+     * Build a classifier from config, falling back to the defaults
+     *
+     * @param section console.classifier section, may be null
+     * @return Classifier
+     */
+    public static ConsoleClassifier fromConfig(ConfigurationSection section) {
+        if (section == null || section.getConfigurationSection("rules") == null) {
+            return defaults();
+        }
+
+        ConfigurationSection rulesSection = section.getConfigurationSection("rules");
+        List<Rule> rules = new ArrayList<>();
+        for (String type : rulesSection.getKeys(false)) {
+            rules.add(new Rule(type,
+                    rulesSection.getStringList(type + ".contains"),
+                    rulesSection.getStringList(type + ".prefix")));
+        }
+        return new ConsoleClassifier(rules, section.getString("default-type", "log"));
+    }
+
+    /**
+     * Build a classifier from a backend payload
+     * Payload: rules[] of {type, contains[], prefix[]} in priority order, and
+     * an optional default_type.
+     *
+     * @param payload Event payload
+     * @return Classifier
+     */
+    public static ConsoleClassifier fromJson(JsonObject payload) {
+        List<Rule> rules = new ArrayList<>();
+        if (payload.has("rules") && payload.get("rules").isJsonArray()) {
+            for (JsonElement element : payload.getAsJsonArray("rules")) {
+                if (!element.isJsonObject() || !element.getAsJsonObject().has("type")) {
+                    continue;
+                }
+                JsonObject rule = element.getAsJsonObject();
+                rules.add(new Rule(rule.get("type").getAsString(),
+                        stringList(rule, "contains"),
+                        stringList(rule, "prefix")));
+            }
+        }
+        String defaultType = payload.has("default_type") ? payload.get("default_type").getAsString() : "log";
+        return new ConsoleClassifier(rules, defaultType);
+    }
+
+    private static List<String> stringList(JsonObject object, String key) {
+        List<String> list = new ArrayList<>();
+        if (object.has(key) && object.get(key).isJsonArray()) {
+            JsonArray array = object.getAsJsonArray(key);
+            for (JsonElement element : array) {
+                list.add(element.getAsString());
+            }
+        }
+        return list;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherClasses[index] : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static String lowerCase(String pattern) {
+        StringBuilder builder = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            builder.append(Character.toLowerCase(pattern.charAt(i)));
+        }
+        return builder.toString();
+    }
+}
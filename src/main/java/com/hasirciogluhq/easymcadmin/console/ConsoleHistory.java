@@ -0,0 +1,205 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Console History - byte-budgeted off-heap ring of recent console records
+ * Every record gets a monotonically increasing offset. Record bytes live in a
+ * direct buffer outside the Java heap; only a small position/length index is
+ * on-heap. When the buffer or the index is full, the oldest records are
+ * evicted. Records never wrap around the end of the buffer, so each one is a
+ * single contiguous slice.
+ *
+ * Appends come from the console consumer thread, reads from RPC handlers.
+ */
+public class ConsoleHistory {
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int[] positions;
+    private final int[] lengths;
+    private final int indexMask;
+
+    private long firstOffset = 0L;
+    private long nextOffset = 0L;
+    private int writePosition = 0;
+
+    /**
+     * Create a new console history
+     *
+     * @param maxBytes   Off-heap byte budget
+     * @param maxRecords Max records kept, rounded up to a power of two
+     */
+    public ConsoleHistory(int maxBytes, int maxRecords) {
+        this.capacity = Math.max(4096, maxBytes);
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+
+        int clamped = Math.max(16, Math.min(1 << 22, maxRecords));
+        int indexSize = Integer.highestOneBit(clamped);
+        if (indexSize < clamped) {
+            indexSize <<= 1;
+        }
+        this.positions = new int[indexSize];
+        this.lengths = new int[indexSize];
+        this.indexMask = indexSize - 1;
+    }
+
+    /**
+     * Get the offset the next appended record will get
+     *
+     * @return Next offset
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Get the offset of the oldest record still kept
+     *
+     * @return Oldest offset (equal to next offset when empty)
+     */
+    public synchronized long getFirstOffset() {
+        return firstOffset;
+    }
+
+    /**
+     * Append a record
+     * Records larger than the whole buffer are not stored, but still consume
+     * their offset so offsets stay aligned with what was streamed.
+     *
+     * @param record Encoded record
+     * @return Offset of the record
+     */
+    public synchronized long append(byte[] record) {
+        long offset = nextOffset++;
+        int length = record.length;
+        if (length > capacity) {
+            // Nothing older than a skipped record can be served without a gap
+            firstOffset = nextOffset;
+            return offset;
+        }
+
+        if (writePosition + length > capacity) {
+            // Records at the end of the buffer are the oldest ones; drop them and wrap
+            while (firstOffset < offset && positionOf(firstOffset) >= writePosition) {
+                firstOffset++;
+            }
+            writePosition = 0;
+        }
+        // Drop the oldest records overlapping the space being written
+        while (firstOffset < offset && overlaps(firstOffset, writePosition, length)) {
+            firstOffset++;
+        }
+        // Index full
+        if (offset - firstOffset > indexMask) {
+            firstOffset = offset - indexMask;
+        }
+
+        buffer.put(writePosition, record);
+        int slot = (int) offset & indexMask;
+        positions[slot] = writePosition;
+        lengths[slot] = length;
+        writePosition += length;
+        return offset;
+    }
+
+    /**
+     * Read records before or after a cursor
+     *
+     * @param after  Return records with offset greater than this (-1 = from the oldest), ignored when before is set
+     * @param before Return the newest records with offset less than this, or null
+     * @param limit  Max records
+     * @return Page of records in offset order
+     */
+    public synchronized Page read(long after, Long before, int limit) {
+        long from;
+        long to;
+        if (before != null) {
+            to = Math.min(before, nextOffset);
+            from = Math.max(firstOffset, to - limit);
+        } else {
+            from = Math.max(firstOffset, after + 1);
+            to = Math.min(nextOffset, from + limit);
+        }
+
+        List<byte[]> records = new ArrayList<>();
+        for (long offset = from; offset < to; offset++) {
+            int slot = (int) offset & indexMask;
+            byte[] record = new byte[lengths[slot]];
+            buffer.get(positions[slot], record);
+            records.add(record);
+        }
+        return new Page(from, records, firstOffset, nextOffset);
+    }
+
+    /**
+     * Get memory usage
+     *
+     * @return Off-heap capacity in bytes
+     */
+    public int getCapacityBytes() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of records kept
+     *
+     * @return Record count
+     */
+    public synchronized long getRecordCount() {
+        return nextOffset - firstOffset;
+    }
+
+    private int positionOf(long offset) {
+        return positions[(int) offset & indexMask];
+    }
+
+    private boolean overlaps(long offset, int start, int length) {
+        int position = positionOf(offset);
+        int end = position + lengths[(int) offset & indexMask];
+        return position < start + length && start < end;
+    }
+
+    /**
+     * One page of history
+     */
+    public static class Page {
+        private final long startOffset;
+        private final List<byte[]> records;
+        private final long firstOffset;
+        private final long nextOffset;
+
+        Page(long startOffset, List<byte[]> records, long firstOffset, long nextOffset) {
+            this.startOffset = startOffset;
+            this.records = records;
+            this.firstOffset = firstOffset;
+            this.nextOffset = nextOffset;
+        }
+
+        /**
+         * Offset of the first record in this page
+         */
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        public List<byte[]> getRecords() {
+            return records;
+        }
+
+        /**
+         * Oldest offset kept at read time
+         */
+        public long getFirstOffset() {
+            return firstOffset;
+        }
+
+        /**
+         * Offset the next record will get at read time
+         */
+        public long getNextOffset() {
+            return nextOffset;
+        }
+    }
+}
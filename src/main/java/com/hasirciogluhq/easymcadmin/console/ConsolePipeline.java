@@ -0,0 +1,321 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.packets.console.ConsoleOutputBatchPacket;
+import com.hasirciogluhq.easymcadmin.transport.TransportManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Console Pipeline - moves console lines from logging threads to the backend
+ * Logging threads only copy the line into the ring buffer. One consumer
+ * thread drains it into console_output_batch packets, flushed when a batch
+ * reaches max lines or max bytes, or when its oldest line is older than the
+ * flush interval.
+ *
+ * Before batching, repeated lines are collapsed and noisy loggers sampled
+ * (see ConsoleSpamFilter).
+ *
+ * Only lines matching a backend subscription (see ConsoleSubscriptions) are
+ * streamed. With no subscriber and history disabled, the appender returns
+ * before formatting the message.
+ *
+ * Every record also goes into the off-heap history with its offset, which
+ * is included in the streamed line, so a client can page the history with
+ * console.history and continue the live stream without gaps or duplicates.
+ *
+ * Config (config.yml):
+ * console.buffer-size
+ * console.batch.{max-lines, max-bytes, flush-interval-ms}
+ * console.spam.{enabled, window-ms, max-templates, sample-threshold}
+ * console.history.{enabled, max-bytes, max-records}
+ * console.classifier (see ConsoleClassifier)
+ */
+public class ConsolePipeline {
+    private static final int LINE_OVERHEAD_BYTES = 96;
+
+    private final EasyMcAdmin plugin;
+    private final TransportManager transportManager;
+    private final ConsoleRingBuffer ring;
+    private final ConsoleSpamFilter spamFilter;
+    private final ConsoleHistory history;
+    private final ConsoleSubscriptions subscriptions = new ConsoleSubscriptions();
+    private volatile ConsoleClassifier classifier;
+    private final int maxLines;
+    private final int maxBytes;
+    private final long flushIntervalNanos;
+
+    private volatile Thread consumerThread;
+    private volatile boolean running = false;
+    private volatile boolean waiting = false;
+
+    // Consumer thread state
+    private JsonArray batch = new JsonArray();
+    private int batchBytes = 0;
+    private long batchStartedNanos = 0L;
+    private long reportedDropped = 0L;
+
+    private final AtomicLong linesSent = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+
+    public ConsolePipeline(EasyMcAdmin plugin, TransportManager transportManager) {
+        this.plugin = plugin;
+        this.transportManager = transportManager;
+        this.ring = new ConsoleRingBuffer(plugin.getConfig().getInt("console.buffer-size", 8192));
+        this.maxLines = Math.max(1, plugin.getConfig().getInt("console.batch.max-lines", 256));
+        this.maxBytes = Math.max(1024, plugin.getConfig().getInt("console.batch.max-bytes", 65536));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS
+                .toNanos(Math.max(1L, plugin.getConfig().getLong("console.batch.flush-interval-ms", 50L)));
+        this.spamFilter = new ConsoleSpamFilter(
+                plugin.getConfig().getBoolean("console.spam.enabled", true),
+                plugin.getConfig().getLong("console.spam.window-ms", 1000L),
+                plugin.getConfig().getInt("console.spam.max-templates", 1024),
+                plugin.getConfig().getInt("console.spam.sample-threshold", 100),
+                this::addCollapsedLine);
+        this.classifier = ConsoleClassifier.fromConfig(plugin.getConfig().getConfigurationSection("console.classifier"));
+        this.history = plugin.getConfig().getBoolean("console.history.enabled", true)
+                ? new ConsoleHistory(
+                        plugin.getConfig().getInt("console.history.max-bytes", 4 * 1024 * 1024),
+                        plugin.getConfig().getInt("console.history.max-records", 65536))
+                : null;
+    }
+
+    /**
+     * Start the consumer thread
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "EasyMcAdmin-Console");
+        thread.setDaemon(true);
+        consumerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the consumer thread; lines still buffered are flushed first
+     */
+    public void stop() {
+        running = false;
+        Thread thread = consumerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        consumerThread = null;
+    }
+
+    /**
+     * Publish one console line (logging threads, never blocks)
+     *
+     * @param live Whether a subscription accepted the raw event (false = history only)
+     * @return false if the line was dropped because the buffer is full
+     */
+    public boolean publish(long timestamp, String level, String logger, String thread, String message,
+            boolean live) {
+        boolean accepted = ring.publish(timestamp, level, logger, thread, message, live);
+        if (waiting) {
+            Thread consumer = consumerThread;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Get the console history
+     *
+     * @return ConsoleHistory instance, null if history is disabled
+     */
+    public ConsoleHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Check if lines are kept in the history even when nobody subscribes
+     *
+     * @return true if history is enabled
+     */
+    public boolean isHistoryEnabled() {
+        return history != null;
+    }
+
+    /**
+     * Get the live stream subscriptions
+     *
+     * @return ConsoleSubscriptions instance
+     */
+    public ConsoleSubscriptions getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * Replace the line classifier (e.g. rules pushed by the backend)
+     *
+     * @param classifier New classifier, applies to lines not yet batched
+     */
+    public void setClassifier(ConsoleClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Check if the current thread is the consumer thread
+     * Lines logged by the consumer itself (e.g. send failures) are skipped so
+     * they cannot feed back into the pipeline.
+     *
+     * @return true if called from the consumer thread
+     */
+    public boolean isConsumerThread() {
+        return Thread.currentThread() == consumerThread;
+    }
+
+    /**
+     * Get pipeline statistics
+     *
+     * @return JsonObject with buffered, capacity, dropped, lines_sent, batches_sent, send_failures,
+     *         deduplicated, sampled
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("buffered", ring.getSize());
+        json.addProperty("capacity", ring.getCapacity());
+        json.addProperty("dropped", ring.getDroppedCount());
+        json.addProperty("lines_sent", linesSent.get());
+        json.addProperty("batches_sent", batchesSent.get());
+        json.addProperty("send_failures", sendFailures.get());
+        json.addProperty("deduplicated", spamFilter.getDeduplicatedTotal());
+        json.addProperty("sampled", spamFilter.getSampledTotal());
+        json.addProperty("subscriptions", subscriptions.getActiveCount());
+        if (history != null) {
+            json.addProperty("history_records", history.getRecordCount());
+            json.addProperty("history_bytes", history.getCapacityBytes());
+        }
+        return json;
+    }
+
+    private void run() {
+        while (running || !ring.isEmpty()) {
+            int read = ring.drain(this::addLine, maxLines);
+            spamFilter.expire(System.currentTimeMillis());
+
+            if (batch.size() > 0 && System.nanoTime() - batchStartedNanos >= flushIntervalNanos) {
+                flush();
+            }
+            if (read > 0) {
+                continue;
+            }
+            if (!running) {
+                break;
+            }
+
+            // Idle: sleep until the pending batch is due, or until a producer wakes us
+            long parkNanos = batch.size() > 0
+                    ? Math.max(1L, batchStartedNanos + flushIntervalNanos - System.nanoTime())
+                    : flushIntervalNanos;
+            waiting = true;
+            if (ring.isEmpty()) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+            waiting = false;
+        }
+        spamFilter.flushAll();
+        flush();
+    }
+
+    private void addLine(long timestamp, String level, String logger, String thread, String message,
+            boolean live) {
+        if (message == null || message.trim().isEmpty()) {
+            return;
+        }
+        // Regex filters run here rather than on the logging thread
+        boolean streamed = live && subscriptions.accepts(level, logger, message);
+        if (!streamed && history == null) {
+            return;
+        }
+        if (!spamFilter.accept(timestamp, level, logger, thread, message, streamed)) {
+            return;
+        }
+        append(buildLine(timestamp, level, logger, thread, message), message.length(), streamed);
+    }
+
+    private void addCollapsedLine(long timestamp, String level, String logger, String thread, String message,
+            boolean live, int repeatCount, long firstTimestamp) {
+        JsonObject line = buildLine(timestamp, level, logger, thread, message);
+        line.addProperty("repeat_count", repeatCount);
+        line.addProperty("first_timestamp", firstTimestamp);
+        append(line, message.length(), live);
+    }
+
+    private JsonObject buildLine(long timestamp, String level, String logger, String thread, String message) {
+        JsonObject line = new JsonObject();
+        line.addProperty("message", message);
+        line.addProperty("level", level.toLowerCase());
+        line.addProperty("kind", "console");
+        line.addProperty("type", classifier.classify(message));
+        line.addProperty("timestamp", timestamp);
+        line.addProperty("logger", logger);
+        line.addProperty("thread", thread);
+        return line;
+    }
+
+    private void append(JsonObject line, int messageLength, boolean live) {
+        if (history != null) {
+            // Only this thread appends, so the next offset is the one append() assigns
+            line.addProperty("offset", history.getNextOffset());
+            history.append(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (!live) {
+            return;
+        }
+
+        if (batch.size() == 0) {
+            batchStartedNanos = System.nanoTime();
+        }
+        batch.add(line);
+        batchBytes += messageLength + LINE_OVERHEAD_BYTES;
+
+        if (batch.size() >= maxLines || batchBytes >= maxBytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.size() == 0) {
+            return;
+        }
+
+        JsonArray lines = batch;
+        batch = new JsonArray();
+        batchBytes = 0;
+
+        long dropped = ring.getDroppedCount();
+        long droppedSinceLast = dropped - reportedDropped;
+        reportedDropped = dropped;
+
+        if (!transportManager.isConnected() || !transportManager.isAuthenticated()) {
+            return;
+        }
+        try {
+            transportManager.sendPacket(new ConsoleOutputBatchPacket(lines, droppedSinceLast,
+                    spamFilter.takeSuppressedReport()));
+            linesSent.addAndGet(lines.size());
+            batchesSent.incrementAndGet();
+        } catch (Exception e) {
+            sendFailures.incrementAndGet();
+            plugin.getLogger().fine("Failed to send console batch: " + e.getMessage());
+        }
+    }
+}
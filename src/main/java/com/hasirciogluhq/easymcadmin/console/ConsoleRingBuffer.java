@@ -0,0 +1,135 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Console Ring Buffer - preallocated lock-free multi-producer, single-consumer queue
+ * Disruptor-style: producers claim a sequence with one CAS, write the line
+ * into the slot's parallel arrays and publish the slot; the single consumer
+ * reads published slots in order. When the buffer is full the line is dropped
+ * and counted, so logging threads never block.
+ */
+public class ConsoleRingBuffer {
+    private final int capacity;
+    private final int mask;
+
+    private final long[] timestamps;
+    private final String[] levels;
+    private final String[] loggers;
+    private final String[] threads;
+    private final String[] messages;
+    private final boolean[] live;
+
+    // Per slot: sequence + 1 once the slot holds that sequence's line
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long consumed = 0L;
+
+    /**
+     * Line callback for drain()
+     */
+    public interface LineConsumer {
+        void accept(long timestamp, String level, String logger, String thread, String message, boolean live);
+    }
+
+    /**
+     * Create a new ring buffer
+     *
+     * @param requestedCapacity Minimum number of lines, rounded up to a power of two
+     */
+    public ConsoleRingBuffer(int requestedCapacity) {
+        int clamped = Math.max(16, Math.min(1 << 20, requestedCapacity));
+        int size = Integer.highestOneBit(clamped);
+        if (size < clamped) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.timestamps = new long[size];
+        this.levels = new String[size];
+        this.loggers = new String[size];
+        this.threads = new String[size];
+        this.messages = new String[size];
+        this.live = new boolean[size];
+        this.published = new AtomicLongArray(size);
+    }
+
+    /**
+     * Publish one line (any thread, never blocks)
+     *
+     * @param live Whether the line may be streamed (false = history only)
+     * @return false if the buffer was full and the line was dropped
+     */
+    public boolean publish(long timestamp, String level, String logger, String thread, String message,
+            boolean live) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        timestamps[index] = timestamp;
+        levels[index] = level;
+        loggers[index] = logger;
+        threads[index] = thread;
+        messages[index] = message;
+        this.live[index] = live;
+        // Release store: the consumer sees the slot fields once it sees this
+        published.lazySet(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Read up to max published lines in order (consumer thread only)
+     *
+     * @param consumer Line callback
+     * @param max      Max lines to read
+     * @return Number of lines read
+     */
+    public int drain(LineConsumer consumer, int max) {
+        long next = consumed;
+        int count = 0;
+        while (count < max) {
+            int index = (int) next & mask;
+            if (published.get(index) != next + 1) {
+                break;
+            }
+            String message = messages[index];
+            messages[index] = null;
+            consumer.accept(timestamps[index], levels[index], loggers[index], threads[index], message, live[index]);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumed = next;
+        }
+        return count;
+    }
+
+    /**
+     * Check if there is nothing left to read
+     *
+     * @return true if all claimed lines have been consumed
+     */
+    public boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
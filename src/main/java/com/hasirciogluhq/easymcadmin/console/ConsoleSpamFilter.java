@@ -0,0 +1,278 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import com.google.gson.JsonObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Console Spam Filter - collapses repeated lines and samples noisy loggers
+ * Consumer-thread only, so it needs no synchronization.
+ *
+ * Deduplication: lines are keyed by logger, level and template (the message
+ * with digit runs masked). The first line of a template passes through and
+ * opens a window; repeats inside the window are suppressed and, when the
+ * window ends, emitted as one collapsed record with a repeat count and the
+ * first/last timestamps.
+ *
+ * Sampling: a logger that produced more distinct lines than the threshold in
+ * the last second is sampled down to about the threshold in the next one.
+ * Errors are never sampled.
+ */
+public class ConsoleSpamFilter {
+    private static final int MAX_LOGGERS = 1024;
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxTemplates;
+    private final int sampleThreshold;
+    private final Emitter emitter;
+
+    // Insertion order doubles as window order for expiry
+    private final LinkedHashMap<String, Repeat> repeats = new LinkedHashMap<>();
+    private final Map<String, LoggerRate> loggers = new HashMap<>();
+
+    private long deduplicatedTotal = 0L;
+    private long sampledTotal = 0L;
+    private long deduplicatedSinceReport = 0L;
+    private Map<String, Long> sampledSinceReport = new HashMap<>();
+
+    /**
+     * Receives collapsed records when their window ends
+     */
+    public interface Emitter {
+        void emit(long timestamp, String level, String logger, String thread, String message, boolean live,
+                int repeatCount, long firstTimestamp);
+    }
+
+    private static class Repeat {
+        final long windowEnd;
+        String level;
+        String logger;
+        String thread;
+        String lastMessage;
+        long firstTimestamp;
+        long lastTimestamp;
+        boolean live = false;
+        int count = 0;
+
+        Repeat(long windowEnd) {
+            this.windowEnd = windowEnd;
+        }
+    }
+
+    private static class LoggerRate {
+        long windowStart;
+        int count = 0;
+        int sampleEvery = 1;
+
+        LoggerRate(long windowStart) {
+            this.windowStart = windowStart;
+        }
+    }
+
+    /**
+     * Create a new spam filter
+     *
+     * @param enabled         Whether lines are filtered at all
+     * @param windowMillis    Deduplication window
+     * @param maxTemplates    Max templates tracked at once
+     * @param sampleThreshold Distinct lines per second per logger before sampling (0 = never sample)
+     * @param emitter         Receiver for collapsed records
+     */
+    public ConsoleSpamFilter(boolean enabled, long windowMillis, int maxTemplates, int sampleThreshold,
+            Emitter emitter) {
+        this.enabled = enabled;
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.maxTemplates = Math.max(1, maxTemplates);
+        this.sampleThreshold = Math.max(0, sampleThreshold);
+        this.emitter = emitter;
+    }
+
+    /**
+     * Decide whether a line is sent as-is
+     *
+     * @return true to send the line, false if it was collapsed or sampled out
+     */
+    public boolean accept(long timestamp, String level, String logger, String thread, String message,
+            boolean live) {
+        if (!enabled) {
+            return true;
+        }
+
+        String key = logger + '\u0000' + level + '\u0000' + template(message);
+        Repeat repeat = repeats.get(key);
+        if (repeat != null && timestamp < repeat.windowEnd) {
+            if (repeat.count == 0) {
+                repeat.firstTimestamp = timestamp;
+            }
+            repeat.count++;
+            repeat.level = level;
+            repeat.logger = logger;
+            repeat.thread = thread;
+            repeat.lastMessage = message;
+            repeat.lastTimestamp = timestamp;
+            repeat.live |= live;
+            deduplicatedTotal++;
+            deduplicatedSinceReport++;
+            return false;
+        }
+        if (repeat != null) {
+            close(key, repeat);
+        }
+
+        if (isSampledOut(timestamp, level, logger)) {
+            return false;
+        }
+
+        if (repeats.size() >= maxTemplates) {
+            Iterator<Map.Entry<String, Repeat>> oldest = repeats.entrySet().iterator();
+            Map.Entry<String, Repeat> entry = oldest.next();
+            oldest.remove();
+            emitCollapsed(entry.getValue());
+        }
+        repeats.put(key, new Repeat(timestamp + windowMillis));
+        return true;
+    }
+
+    /**
+     * Emit collapsed records for windows that have ended
+     * Windows open in (roughly) time order, so this stops at the first open one.
+     *
+     * @param nowMillis Current time
+     */
+    public void expire(long nowMillis) {
+        Iterator<Repeat> iterator = repeats.values().iterator();
+        while (iterator.hasNext()) {
+            Repeat repeat = iterator.next();
+            if (repeat.windowEnd > nowMillis) {
+                break;
+            }
+            iterator.remove();
+            emitCollapsed(repeat);
+        }
+    }
+
+    /**
+     * Emit all pending collapsed records (e.g. on shutdown)
+     */
+    public void flushAll() {
+        for (Repeat repeat : repeats.values()) {
+            emitCollapsed(repeat);
+        }
+        repeats.clear();
+    }
+
+    /**
+     * Get what was suppressed since the last call, then reset it
+     * Attached to each console batch so the backend can show it.
+     *
+     * @return JsonObject with deduplicated count and sampled counts per logger, or null if nothing
+     */
+    public JsonObject takeSuppressedReport() {
+        if (deduplicatedSinceReport == 0L && sampledSinceReport.isEmpty()) {
+            return null;
+        }
+
+        JsonObject sampled = new JsonObject();
+        for (Map.Entry<String, Long> entry : sampledSinceReport.entrySet()) {
+            sampled.addProperty(entry.getKey(), entry.getValue());
+        }
+        JsonObject report = new JsonObject();
+        report.addProperty("deduplicated", deduplicatedSinceReport);
+        report.add("sampled", sampled);
+
+        deduplicatedSinceReport = 0L;
+        sampledSinceReport = new HashMap<>();
+        return report;
+    }
+
+    public long getDeduplicatedTotal() {
+        return deduplicatedTotal;
+    }
+
+    public long getSampledTotal() {
+        return sampledTotal;
+    }
+
+    public int getTrackedTemplates() {
+        return repeats.size();
+    }
+
+    private boolean isSampledOut(long timestamp, String level, String logger) {
+        if (sampleThreshold == 0) {
+            return false;
+        }
+
+        LoggerRate rate = loggers.get(logger);
+        if (rate == null) {
+            if (loggers.size() >= MAX_LOGGERS) {
+                loggers.clear();
+            }
+            rate = new LoggerRate(timestamp);
+            loggers.put(logger, rate);
+        }
+
+        if (timestamp - rate.windowStart >= 1000L) {
+            // Sample next second by how far over the threshold this one was
+            boolean consecutive = timestamp - rate.windowStart < 2000L;
+            rate.sampleEvery = consecutive ? Math.max(1, (rate.count + sampleThreshold - 1) / sampleThreshold) : 1;
+            rate.windowStart = timestamp;
+            rate.count = 0;
+        }
+        rate.count++;
+
+        if (rate.sampleEvery <= 1 || isError(level) || rate.count % rate.sampleEvery == 0) {
+            return false;
+        }
+        sampledTotal++;
+        sampledSinceReport.merge(logger, 1L, Long::sum);
+        return true;
+    }
+
+    private void close(String key, Repeat repeat) {
+        repeats.remove(key);
+        emitCollapsed(repeat);
+    }
+
+    private void emitCollapsed(Repeat repeat) {
+        if (repeat.count > 0) {
+            emitter.emit(repeat.lastTimestamp, repeat.level, repeat.logger, repeat.thread, repeat.lastMessage,
+                    repeat.live, repeat.count, repeat.firstTimestamp);
+        }
+    }
+
+    private static boolean isError(String level) {
+        return "ERROR".equals(level) || "FATAL".equals(level);
+    }
+
+    /**
+     * Mask digit runs, so "Took 12ms for 3 chunks" and "Took 40ms for 7 chunks"
+     * share the template "Took #ms for # chunks"
+     */
+    static String template(String message) {
+        StringBuilder builder = null;
+        boolean inDigits = false;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (builder == null) {
+                    builder = new StringBuilder(message.length());
+                    builder.append(message, 0, i);
+                }
+                if (!inDigits) {
+                    builder.append('#');
+                    inDigits = true;
+                }
+            } else {
+                inDigits = false;
+                if (builder != null) {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder != null ? builder.toString() : message;
+    }
+}
@@ -0,0 +1,217 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.Level;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Console Subscriptions - backend-registered filters for the live console stream
+ * A line is streamed if at least one active (not paused) subscription matches
+ * it. With no active subscription nothing is streamed at all.
+ *
+ * Matching is split in two: the level and logger checks are cheap and run in
+ * the appender on the raw LogEvent, before the message is even formatted.
+ * The regex runs on the console consumer thread, so a slow pattern can never
+ * stall a logging thread.
+ *
+ * Subscribe payload: subscription_id, min_level (e.g. "WARN"), loggers[]
+ * (logger name prefixes, empty = all), regex, paused.
+ */
+public class ConsoleSubscriptions {
+    private final Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+
+    // Copy-on-write snapshot of active subscriptions, read without locking
+    private volatile Subscription[] active = new Subscription[0];
+
+    private static class Subscription {
+        final String id;
+        final Level minLevel;
+        final String[] loggerPrefixes;
+        final Pattern regex;
+        final boolean paused;
+
+        Subscription(String id, Level minLevel, String[] loggerPrefixes, Pattern regex, boolean paused) {
+            this.id = id;
+            this.minLevel = minLevel;
+            this.loggerPrefixes = loggerPrefixes;
+            this.regex = regex;
+            this.paused = paused;
+        }
+
+        boolean acceptsRaw(int intLevel, String logger) {
+            // log4j: lower intLevel = more severe
+            if (intLevel > minLevel.intLevel()) {
+                return false;
+            }
+            if (loggerPrefixes.length == 0) {
+                return true;
+            }
+            String name = logger != null ? logger : "";
+            for (String prefix : loggerPrefixes) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        JsonObject toJson() {
+            JsonArray loggers = new JsonArray();
+            for (String prefix : loggerPrefixes) {
+                loggers.add(prefix);
+            }
+            JsonObject json = new JsonObject();
+            json.addProperty("subscription_id", id);
+            json.addProperty("min_level", minLevel.name());
+            json.add("loggers", loggers);
+            json.addProperty("regex", regex != null ? regex.pattern() : null);
+            json.addProperty("paused", paused);
+            return json;
+        }
+    }
+
+    /**
+     * Add or replace a subscription
+     *
+     * @param payload Subscribe payload
+     * @return Error message, or null if subscribed
+     */
+    public String subscribe(JsonObject payload) {
+        if (!payload.has("subscription_id")) {
+            return "missing subscription_id";
+        }
+        String id = payload.get("subscription_id").getAsString();
+
+        Level minLevel = Level.ALL;
+        if (payload.has("min_level")) {
+            minLevel = Level.getLevel(payload.get("min_level").getAsString().toUpperCase());
+            if (minLevel == null) {
+                return "unknown min_level";
+            }
+        }
+
+        List<String> prefixes = new ArrayList<>();
+        if (payload.has("loggers") && payload.get("loggers").isJsonArray()) {
+            for (JsonElement element : payload.getAsJsonArray("loggers")) {
+                prefixes.add(element.getAsString());
+            }
+        }
+
+        Pattern regex = null;
+        if (payload.has("regex") && !payload.get("regex").isJsonNull()
+                && !payload.get("regex").getAsString().isEmpty()) {
+            try {
+                regex = Pattern.compile(payload.get("regex").getAsString());
+            } catch (PatternSyntaxException e) {
+                return "invalid regex";
+            }
+        }
+
+        boolean paused = payload.has("paused") && payload.get("paused").getAsBoolean();
+
+        synchronized (this) {
+            subscriptions.put(id, new Subscription(id, minLevel, prefixes.toArray(new String[0]), regex, paused));
+            rebuild();
+        }
+        return null;
+    }
+
+    /**
+     * Remove a subscription
+     *
+     * @param subscriptionId Subscription ID
+     */
+    public synchronized void unsubscribe(String subscriptionId) {
+        if (subscriptions.remove(subscriptionId) != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Remove all subscriptions (e.g. when a new backend session starts)
+     */
+    public synchronized void clear() {
+        subscriptions.clear();
+        rebuild();
+    }
+
+    /**
+     * Check if any active subscription is interested in a raw log event
+     * Called on logging threads; no locking, no allocation.
+     *
+     * @param intLevel log4j intLevel of the event
+     * @param logger   Logger name
+     * @return true if the line may be streamed (regex still to check)
+     */
+    public boolean acceptsRaw(int intLevel, String logger) {
+        for (Subscription subscription : active) {
+            if (subscription.acceptsRaw(intLevel, logger)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if any active subscription matches a line, including its regex
+     *
+     * @param level   Level name
+     * @param logger  Logger name
+     * @param message Formatted message
+     * @return true if the line should be streamed
+     */
+    public boolean accepts(String level, String logger, String message) {
+        Subscription[] snapshot = active;
+        if (snapshot.length == 0) {
+            return false;
+        }
+        int intLevel = Level.toLevel(level, Level.INFO).intLevel();
+        for (Subscription subscription : snapshot) {
+            if (subscription.acceptsRaw(intLevel, logger)
+                    && (subscription.regex == null || subscription.regex.matcher(message).find())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of active subscriptions
+     *
+     * @return Subscriptions that are not paused
+     */
+    public int getActiveCount() {
+        return active.length;
+    }
+
+    /**
+     * Get all subscriptions
+     *
+     * @return JsonArray of subscriptions
+     */
+    public synchronized JsonArray toJson() {
+        JsonArray json = new JsonArray();
+        for (Subscription subscription : subscriptions.values()) {
+            json.add(subscription.toJson());
+        }
+        return json;
+    }
+
+    private void rebuild() {
+        List<Subscription> list = new ArrayList<>();
+        for (Subscription subscription : subscriptions.values()) {
+            if (!subscription.paused) {
+                list.add(subscription);
+            }
+        }
+        active = list.toArray(new Subscription[0]);
+    }
+}
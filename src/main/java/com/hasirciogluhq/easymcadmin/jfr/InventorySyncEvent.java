@@ -0,0 +1,30 @@
+package com.hasirciogluhq.easymcadmin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event - a player's inventory and ender chest serialized and diffed
+ */
+@Name("easymcadmin.InventorySync")
+@Label("Inventory Snapshot")
+@Category({ "EasyMcAdmin", "Inventory" })
+@Description("Inventory and ender chest serialized, hashed and diffed against the last state sent")
+@StackTrace(false)
+public class InventorySyncEvent extends Event {
+    @Label("Player")
+    public String player;
+
+    @Label("Full Sync")
+    public boolean fullSync;
+
+    @Label("Inventory Slots Sent")
+    public int inventorySlots;
+
+    @Label("Ender Chest Slots Sent")
+    public int enderChestSlots;
+}
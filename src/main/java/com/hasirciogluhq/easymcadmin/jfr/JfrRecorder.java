@@ -0,0 +1,186 @@
+package com.hasirciogluhq.easymcadmin.jfr;
+
+import com.google.gson.JsonObject;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * JFR Recorder - one Flight Recorder recording at a time, controlled over RPC
+ * The recording is written to a file in the plugin's data folder and sent
+ * back in chunks when stopped (server.jfr.stop). A recording also stops by
+ * itself after its duration; the file stays until it is collected or the
+ * next recording starts.
+ *
+ * The plugin's own events (easymcadmin.*) are in every recording next to
+ * the JVM's GC, safepoint and thread events.
+ */
+public class JfrRecorder {
+    private final File directory;
+    private final long maxDurationSeconds;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private Path file;
+    private String profile;
+    private long startedAtMillis;
+
+    /**
+     * Create a recorder
+     *
+     * @param directory          Directory for recording files
+     * @param maxDurationSeconds Longest allowed recording
+     * @param maxSizeMb          Largest allowed recording file
+     */
+    public JfrRecorder(File directory, long maxDurationSeconds, long maxSizeMb) {
+        this.directory = directory;
+        this.maxDurationSeconds = Math.max(1L, maxDurationSeconds);
+        this.maxSizeBytes = Math.max(1L, maxSizeMb) * 1024L * 1024L;
+    }
+
+    /**
+     * Check if this JVM can record
+     *
+     * @return true if Flight Recorder is available
+     */
+    public static boolean isAvailable() {
+        try {
+            return FlightRecorder.isAvailable();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Start a recording
+     * Payload: profile ("default" or "profile", the JDK's built-in settings),
+     * duration_seconds (capped at the configured maximum) and max_size_mb,
+     * all optional.
+     *
+     * @param payload Start payload
+     * @return Error message, or null if started
+     */
+    public synchronized String start(JsonObject payload) {
+        if (!isAvailable()) {
+            return "jfr not available";
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return "recording already running";
+        }
+
+        String requestedProfile = payload.has("profile") ? payload.get("profile").getAsString() : "default";
+        long durationSeconds = payload.has("duration_seconds")
+                ? Math.max(1L, Math.min(maxDurationSeconds, payload.get("duration_seconds").getAsLong()))
+                : maxDurationSeconds;
+        long maxSize = payload.has("max_size_mb")
+                ? Math.max(1L, Math.min(maxSizeBytes, payload.get("max_size_mb").getAsLong() * 1024L * 1024L))
+                : maxSizeBytes;
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(requestedProfile);
+        } catch (Exception e) {
+            return "unknown profile: " + requestedProfile;
+        }
+
+        discard();
+        try {
+            Files.createDirectories(directory.toPath());
+            Path destination = directory.toPath().resolve("easymcadmin-" + System.currentTimeMillis() + ".jfr");
+
+            Recording started = new Recording(configuration);
+            started.setName("EasyMcAdmin");
+            started.setToDisk(true);
+            started.setDestination(destination);
+            started.setDuration(Duration.ofSeconds(durationSeconds));
+            started.setMaxSize(maxSize);
+            started.start();
+
+            recording = started;
+            file = destination;
+            profile = requestedProfile;
+            startedAtMillis = System.currentTimeMillis();
+            return null;
+        } catch (Exception e) {
+            return "failed to start recording: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Stop the recording and hand over its file
+     * The caller owns the file and deletes it once sent.
+     *
+     * @return Recording file, or null if there is no recording
+     * @throws IOException if the recording could not be written
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Recording stopped = recording;
+        Path stoppedFile = file;
+        recording = null;
+        file = null;
+        try {
+            if (stopped.getState() == RecordingState.RUNNING) {
+                // Writes the destination file
+                stopped.stop();
+            }
+        } finally {
+            stopped.close();
+        }
+        if (!Files.exists(stoppedFile)) {
+            throw new IOException("recording file was not written");
+        }
+        return stoppedFile;
+    }
+
+    /**
+     * Stop and delete any recording without sending it
+     */
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * Get the recording state
+     * Keys: available, state (none, running or stopped), and for a recording:
+     * profile, started_at, duration_seconds and size_bytes.
+     *
+     * @return JsonObject status
+     */
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("available", isAvailable());
+        if (recording == null) {
+            json.addProperty("state", "none");
+            return json;
+        }
+        json.addProperty("state", recording.getState() == RecordingState.RUNNING ? "running" : "stopped");
+        json.addProperty("profile", profile);
+        json.addProperty("started_at", startedAtMillis);
+        Duration duration = recording.getDuration();
+        if (duration != null) {
+            json.addProperty("duration_seconds", duration.getSeconds());
+        }
+        json.addProperty("size_bytes", recording.getSize());
+        return json;
+    }
+}
@@ -0,0 +1,32 @@
+package com.hasirciogluhq.easymcadmin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event - one packet serialized and written to the backend socket
+ * The event spans encoding, waiting for the write lock and the write itself.
+ */
+@Name("easymcadmin.PacketSend")
+@Label("Packet Send")
+@Category({ "EasyMcAdmin", "Transport" })
+@Description("Packet encoded to JSON and written to the backend connection")
+@StackTrace(false)
+public class PacketSendEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Encode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long encodeTime;
+}
@@ -0,0 +1,29 @@
+package com.hasirciogluhq.easymcadmin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event - one tick's drain of the main thread queue
+ * Only committed for drains that ran work.
+ */
+@Name("easymcadmin.QueueDrain")
+@Label("Main Thread Queue Drain")
+@Category({ "EasyMcAdmin", "Scheduler" })
+@Description("Queued plugin work run on the main thread within one tick's budget")
+@StackTrace(false)
+public class QueueDrainEvent extends Event {
+    @Label("Work Items Executed")
+    public int executed;
+
+    @Label("Work Items Left")
+    public int remaining;
+
+    @Label("Carried Over")
+    @Description("Work was left for the next tick")
+    public boolean carriedOver;
+}
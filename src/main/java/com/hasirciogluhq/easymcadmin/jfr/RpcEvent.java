@@ -0,0 +1,60 @@
+package com.hasirciogluhq.easymcadmin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event - one RPC from admission (inbound) or send (outbound) to its end
+ * Inbound requests end when the response or terminal stream frame is sent,
+ * outbound ones when the response arrives, fails or times out.
+ */
+@Name("easymcadmin.Rpc")
+@Label("RPC")
+@Category({ "EasyMcAdmin", "RPC" })
+@Description("RPC round trip, inbound (backend to plugin) or outbound")
+@StackTrace(false)
+public class RpcEvent extends Event {
+    public static final String INBOUND = "inbound";
+    public static final String OUTBOUND = "outbound";
+
+    @Label("Action")
+    public String action;
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Mode")
+    @Description("Where an inbound request ran: main, direct, worker or stream")
+    public String mode;
+
+    @Label("Outcome")
+    @Description("ok, error, timeout (outbound), deadline_exceeded, rejected or cancelled (inbound)")
+    public String outcome;
+
+    @Label("Queue Wait")
+    @Description("Time an inbound main-thread request waited for its first slice")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+
+    /**
+     * Create and begin an event
+     *
+     * @param direction INBOUND or OUTBOUND
+     * @param mode      Execution mode for inbound requests, null for outbound
+     * @param action    RPC action
+     * @return Begun event, to be committed when the RPC ends
+     */
+    public static RpcEvent start(String direction, String mode, String action) {
+        RpcEvent event = new RpcEvent();
+        event.direction = direction;
+        event.mode = mode;
+        event.action = action;
+        event.begin();
+        return event;
+    }
+}
@@ -5,7 +5,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.*;
@@ -25,9 +24,12 @@ import org.bukkit.plugin.Plugin;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.jfr.InventorySyncEvent;
+import com.hasirciogluhq.easymcadmin.metrics.OverheadMonitor;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.packets.player.PlayerInventoryChangedPacket;
 import com.hasirciogluhq.easymcadmin.player.serializers.InventorySerializer;
+import com.hasirciogluhq.easymcadmin.scheduler.MainThreadQueue;
 
 public class InventoryChangeListener implements Listener {
 
@@ -51,7 +53,13 @@ public class InventoryChangeListener implements Listener {
         if (fullUpdateRequires == null)
             fullUpdateRequires = false;
 
-        sendPlayerInventoryUpdate(p, fullUpdateRequires);
+        OverheadMonitor overhead = plugin.getOverheadMonitor();
+        long start = overhead.begin();
+        try {
+            sendPlayerInventoryUpdate(p, fullUpdateRequires);
+        } finally {
+            overhead.end(OverheadMonitor.Feature.INVENTORY, start);
+        }
     }
 
     /**
@@ -63,6 +71,8 @@ public class InventoryChangeListener implements Listener {
      * @return A JsonObject containing the inventory data.
      */
     public JsonObject generatePlayerInventoryData(Player player, boolean fullSync) {
+        InventorySyncEvent event = new InventorySyncEvent();
+        event.begin();
         UUID playerUUID = player.getUniqueId();
 
         // Serialize current inventory and ender chest
@@ -140,6 +150,15 @@ public class InventoryChangeListener implements Listener {
             }
         }
 
+        if (event.shouldCommit()) {
+            event.player = player.getName();
+            event.fullSync = fullSync;
+            event.inventorySlots = inventoryData.has("inventory") ? inventoryData.getAsJsonArray("inventory").size() : 0;
+            event.enderChestSlots = inventoryData.has("ender_chest")
+                    ? inventoryData.getAsJsonArray("ender_chest").size()
+                    : 0;
+            event.commit();
+        }
         return inventoryData;
     }
 
@@ -191,21 +210,31 @@ public class InventoryChangeListener implements Listener {
         }
     }
 
+    /**
+     * Queue work for the main-thread queue, which runs it on the next drain
+     * (at the earliest the next tick, same as the old 1-tick delay)
+     *
+     * @param work Work to run once the inventory has been updated
+     */
+    private void queueNextTick(Runnable work) {
+        plugin.getMainThreadQueue().submit(MainThreadQueue.Priority.NORMAL, work);
+    }
+
     // --- Inventory Click (shift, drag, taşıma vs) ---
     @EventHandler
     public void onClick(InventoryClickEvent e) {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        queueNextTick(() -> {
             if (e.getWhoClicked() instanceof Player p)
                 fire(p, "InventoryClick", false);
-        }, 1L);
+        });
     }
 
     @EventHandler
     public void onDrag(InventoryDragEvent e) {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        queueNextTick(() -> {
             if (e.getWhoClicked() instanceof Player p)
                 fire(p, "InventoryDrag", false);
-        }, 1L);
+        });
     }
 
     // --- Consume (yemek, potion) ---
@@ -217,10 +246,10 @@ public class InventoryChangeListener implements Listener {
     // --- Interact (durability, bucket fill, pearl, fire, vb) ---
     @EventHandler
     public void onInteract(PlayerInteractEvent e) {
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        queueNextTick(() -> {
             if (e.getPlayer() != null)
                 fire(e.getPlayer(), "Interact", false);
-        }, 1L);
+        });
     }
 
     // --- Block break: tool durability azalır ---
@@ -331,9 +360,9 @@ public class InventoryChangeListener implements Listener {
     public void onPlayerDropItem(PlayerDropItemEvent event) {
         Player player = event.getPlayer();
         // Send inventory update after a short delay to ensure inventory is updated
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+        queueNextTick(() -> {
             fire(player, "Item Drop", false);
-        }, 1L);
+        });
     }
 
     @EventHandler
@@ -341,9 +370,9 @@ public class InventoryChangeListener implements Listener {
         if (event.getEntity() instanceof Player) {
             Player player = (Player) event.getEntity();
             // Send inventory update after a short delay to ensure inventory is updated
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            queueNextTick(() -> {
                 fire(player, "Item Pick Up ", false);
-            }, 1L);
+            });
         }
     }
 
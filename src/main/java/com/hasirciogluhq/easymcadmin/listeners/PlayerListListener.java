@@ -3,6 +3,7 @@ package com.hasirciogluhq.easymcadmin.listeners;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.metrics.OverheadMonitor;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.packets.player.PlayerJoinPacket;
 import com.hasirciogluhq.easymcadmin.packets.player.PlayerLeftPacket;
@@ -13,6 +14,7 @@ import com.hasirciogluhq.easymcadmin.packets.player.PlayerBalanceUpdatePacket;
 import com.hasirciogluhq.easymcadmin.player.PlayerDataSerializer;
 import com.hasirciogluhq.easymcadmin.player.serializers.InventorySerializer;
 import com.hasirciogluhq.easymcadmin.economy.EconomyManager;
+import com.hasirciogluhq.easymcadmin.scheduler.MainThreadQueue;
 import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.permission.Permission;
 import org.bukkit.Bukkit;
@@ -36,6 +38,7 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -139,6 +142,8 @@ public class PlayerListListener implements Listener {
         if (player == null)
             return;
 
+        OverheadMonitor overhead = plugin.getOverheadMonitor();
+        long start = overhead.begin();
         try {
             JsonObject playerObj = PlayerDataSerializer.getPlayerDetailsPayload(player);
             playerObj.addProperty("online", true);
@@ -157,6 +162,8 @@ public class PlayerListListener implements Listener {
             sendPlayerBalanceUpdate(player);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to send player join event: " + e.getMessage());
+        } finally {
+            overhead.end(OverheadMonitor.Feature.PLAYER_DETAILS, start);
         }
     }
 
@@ -174,6 +181,8 @@ public class PlayerListListener implements Listener {
         if (player == null)
             return;
 
+        OverheadMonitor overhead = plugin.getOverheadMonitor();
+        long start = overhead.begin();
         try {
             JsonObject playerObj = PlayerDataSerializer.getPlayerDetailsPayload(player);
             playerObj.addProperty("online", false);
@@ -182,6 +191,8 @@ public class PlayerListListener implements Listener {
             plugin.getTransportManager().sendPacket(packet);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to send player left event: " + e.getMessage());
+        } finally {
+            overhead.end(OverheadMonitor.Feature.PLAYER_DETAILS, start);
         }
     }
 
@@ -313,6 +324,25 @@ public class PlayerListListener implements Listener {
         }
     }
 
+    /**
+     * Allow sendAllOfflinePlayers to run again (new backend session)
+     */
+    public void resetInitialSync() {
+        initialSyncDone = false;
+    }
+
+    /**
+     * Catch the backend up after a resumed session
+     * Sends diff inventory updates (slots changed since the last update the
+     * backend received) and balances for online players instead of a full sync.
+     */
+    public void sendOnlinePlayerChanges() {
+        for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+            plugin.getInventoryChangeListener().sendPlayerInventoryUpdate(onlinePlayer, false);
+            sendPlayerBalanceUpdate(onlinePlayer);
+        }
+    }
+
     /**
      * Send all offline players in chunks after server is ready
      * Called when WebSocket connection is established
@@ -339,24 +369,35 @@ public class PlayerListListener implements Listener {
         }
 
         // Send in chunks
-        List<OfflinePlayer> chunk = new ArrayList<>();
-        for (int i = 0; i < allPlayers.length; i++) {
-            chunk.add(allPlayers[i]);
-
-            if (chunk.size() >= CHUNK_SIZE || i == allPlayers.length - 1) {
-                final List<OfflinePlayer> chunkToSend = new ArrayList<>(chunk);
-                final int chunkIndex = (i / CHUNK_SIZE) + 1;
-                final int totalChunks = (allPlayers.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
-                final boolean isLastChunk = (i == allPlayers.length - 1);
-
-                // Send chunk with delay to avoid overwhelming the connection
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    sendPlayerChunk(chunkToSend, chunkIndex, totalChunks, isLastChunk);
-                }, (chunkIndex - 1) * 2L); // 2 ticks delay between chunks
-
-                chunk.clear();
+        queuePlayerChunk(allPlayers, 0);
+    }
+
+    /**
+     * Queue one chunk of the initial sync
+     * Each chunk queues the next one, two drains later (the old 2-tick
+     * spacing): the chunk's balance updates run on the drain in between.
+     */
+    private void queuePlayerChunk(OfflinePlayer[] allPlayers, int from) {
+        MainThreadQueue queue = plugin.getMainThreadQueue();
+        queue.submitNextDrain(MainThreadQueue.Priority.LOW, () -> {
+            int to = Math.min(allPlayers.length, from + CHUNK_SIZE);
+            int chunkIndex = (from / CHUNK_SIZE) + 1;
+            int totalChunks = (allPlayers.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            boolean isLastChunk = to == allPlayers.length;
+
+            OverheadMonitor overhead = plugin.getOverheadMonitor();
+            long start = overhead.begin();
+            try {
+                sendPlayerChunk(new ArrayList<>(Arrays.asList(allPlayers).subList(from, to)), chunkIndex,
+                        totalChunks, isLastChunk);
+            } finally {
+                overhead.end(OverheadMonitor.Feature.PLAYER_DETAILS, start);
             }
-        }
+
+            if (!isLastChunk) {
+                queue.submitNextDrain(MainThreadQueue.Priority.LOW, () -> queuePlayerChunk(allPlayers, to));
+            }
+        });
     }
 
     /**
@@ -397,16 +438,22 @@ public class PlayerListListener implements Listener {
                 playerArray.add(playerObj);
             }
 
-            // Send balance updates for all players in chunk (after chunk is sent)
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                for (OfflinePlayer offlinePlayer : players) {
-                    if (offlinePlayer.isOnline() && offlinePlayer.getPlayer() != null) {
-                        sendPlayerBalanceUpdate(offlinePlayer.getPlayer());
-                    } else {
-                        sendOfflinePlayerBalanceUpdate(offlinePlayer);
+            // Send balance updates for all players in chunk (next drain, after chunk is sent)
+            plugin.getMainThreadQueue().submitNextDrain(MainThreadQueue.Priority.LOW, () -> {
+                OverheadMonitor overhead = plugin.getOverheadMonitor();
+                long start = overhead.begin();
+                try {
+                    for (OfflinePlayer offlinePlayer : players) {
+                        if (offlinePlayer.isOnline() && offlinePlayer.getPlayer() != null) {
+                            sendPlayerBalanceUpdate(offlinePlayer.getPlayer());
+                        } else {
+                            sendOfflinePlayerBalanceUpdate(offlinePlayer);
+                        }
                     }
+                } finally {
+                    overhead.end(OverheadMonitor.Feature.PLAYER_DETAILS, start);
                 }
-            }, 1L); // 1 tick delay after chunk
+            });
 
             Packet packet = new PlayerChunkPacket(chunkIndex, totalChunks, isLastChunk, playerArray);
             plugin.getTransportManager().sendPacket(packet);
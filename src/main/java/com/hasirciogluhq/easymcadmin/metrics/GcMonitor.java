@@ -0,0 +1,313 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GC Monitor - GC pauses, memory pools and allocation rate
+ * Pauses are pushed by the JVM as GarbageCollectorMXBean notifications, so
+ * none are missed between metrics packets. Pools, buffers and the allocation
+ * rate are sampled when the metrics packet is built.
+ *
+ * Collectors that run concurrently with the application (G1 Concurrent GC,
+ * ZGC/Shenandoah Cycles) are counted separately: their duration is not a pause.
+ */
+public class GcMonitor implements MetricSource, NotificationListener {
+    private static final int MAX_EVENTS = 32;
+
+    private final LatencyHistogram pauses = new LatencyHistogram();
+    private final AtomicLong pauseCount = new AtomicLong();
+    private final AtomicLong pauseMillis = new AtomicLong();
+    private final AtomicLong totalPauseMillis = new AtomicLong();
+    private final AtomicLong concurrentCount = new AtomicLong();
+    private final AtomicLong concurrentMillis = new AtomicLong();
+
+    // Pauses since the last report, for correlating with slow ticks
+    private final ArrayDeque<JsonObject> events = new ArrayDeque<>();
+    private long droppedEvents = 0L;
+
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private List<MemoryPoolMXBean> memoryPools;
+    private List<BufferPoolMXBean> bufferPools;
+    private ThreadMXBean threadBean;
+    private MethodHandle totalAllocatedBytes;
+
+    private long lastAllocatedBytes = -1L;
+    private long lastSampleNanos;
+
+    @Override
+    public String getName() {
+        return "gc";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    @Override
+    public boolean resolve() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+        memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+        bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+
+        threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            try {
+                // Java 21+: includes threads that already exited
+                totalAllocatedBytes = MethodHandles.publicLookup()
+                        .findVirtual(com.sun.management.ThreadMXBean.class, "getTotalThreadAllocatedBytes",
+                                MethodType.methodType(long.class))
+                        .bindTo(threadBean);
+            } catch (ReflectiveOperationException e) {
+                totalAllocatedBytes = null;
+            }
+        } else {
+            threadBean = null;
+        }
+        return true;
+    }
+
+    /**
+     * Get the GC pause time since the monitor started
+     *
+     * @return Total pause time in milliseconds
+     */
+    public long getTotalPauseMillis() {
+        return totalPauseMillis.get();
+    }
+
+    /**
+     * Stop listening for GC notifications
+     */
+    public void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (Exception ignored) {
+            }
+        }
+        emitters.clear();
+    }
+
+    /**
+     * Record one GC, called by the JVM's notification thread
+     *
+     * @param notification GC notification
+     * @param handback     Unused
+     */
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        long durationMillis = info.getGcInfo().getDuration();
+
+        if (isConcurrent(info.getGcName())) {
+            concurrentCount.incrementAndGet();
+            concurrentMillis.addAndGet(durationMillis);
+            return;
+        }
+
+        pauses.record(durationMillis * 1000);
+        pauseCount.incrementAndGet();
+        pauseMillis.addAndGet(durationMillis);
+        totalPauseMillis.addAndGet(durationMillis);
+
+        JsonObject event = new JsonObject();
+        event.addProperty("timestamp", System.currentTimeMillis());
+        event.addProperty("collector", info.getGcName());
+        event.addProperty("action", info.getGcAction());
+        event.addProperty("cause", info.getGcCause());
+        event.addProperty("duration_ms", durationMillis);
+        synchronized (events) {
+            if (events.size() == MAX_EVENTS) {
+                events.pollFirst();
+                droppedEvents++;
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Add GC and memory metrics to a metrics packet and start a new interval
+     * Keys: gc_pause_count, gc_pause_time_ms (left out while the batch carries
+     * gc_pause_total_ms), gc_pause_p50_ms, gc_pause_p99_ms, gc_pause_max_ms,
+     * gc_concurrent_count, gc_concurrent_time_ms, gc_events,
+     * heap_after_gc_bytes, allocation_rate_bytes_per_sec, metaspace_used_bytes
+     * and direct_buffer_* / mapped_buffer_*.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        LatencyHistogram snapshot = pauses.snapshotAndReset();
+        buffer.putLong("gc_pause_count", pauseCount.getAndSet(0L));
+        long pauseTime = pauseMillis.getAndSet(0L);
+        if (!buffer.isBatchSampled()) {
+            buffer.putLong("gc_pause_time_ms", pauseTime);
+        }
+        buffer.putDouble("gc_pause_p50_ms", snapshot.getValueAtPercentile(50.0) / 1000.0);
+        buffer.putDouble("gc_pause_p99_ms", snapshot.getValueAtPercentile(99.0) / 1000.0);
+        buffer.putDouble("gc_pause_max_ms", snapshot.getMax() / 1000.0);
+        buffer.putLong("gc_concurrent_count", concurrentCount.getAndSet(0L));
+        buffer.putLong("gc_concurrent_time_ms", concurrentMillis.getAndSet(0L));
+
+        JsonArray eventArray = new JsonArray();
+        long dropped;
+        synchronized (events) {
+            for (JsonObject event : events) {
+                eventArray.add(event);
+            }
+            events.clear();
+            dropped = droppedEvents;
+            droppedEvents = 0L;
+        }
+        buffer.putJson("gc_events", eventArray);
+        buffer.putLong("gc_events_dropped", dropped);
+
+        collectPools(buffer);
+        collectBufferPools(buffer);
+        collectAllocationRate(buffer);
+    }
+
+    /**
+     * Add the per-pool table
+     * Key: memory_pools (per pool: type, used, committed, max, after_gc_used).
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collectStructure(MetricBuffer buffer) {
+        JsonObject pools = new JsonObject();
+        for (MemoryPoolMXBean pool : memoryPools) {
+            if (!pool.isValid()) {
+                continue;
+            }
+            MemoryUsage usage = pool.getUsage();
+            JsonObject json = new JsonObject();
+            json.addProperty("type", pool.getType().name());
+            json.addProperty("used", usage.getUsed());
+            json.addProperty("committed", usage.getCommitted());
+            json.addProperty("max", usage.getMax());
+            // Occupancy right after the last GC of this pool: the live set
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null) {
+                json.addProperty("after_gc_used", afterGc.getUsed());
+            }
+            pools.add(pool.getName(), json);
+        }
+        buffer.putJson("memory_pools", pools);
+    }
+
+    /**
+     * Sample cumulative GC pause time; the batch's delta encoding turns it
+     * into pause time per second
+     *
+     * @param buffer Sample buffer
+     */
+    @Override
+    public void sample(MetricBuffer buffer) {
+        buffer.putLong("gc_pause_total_ms", totalPauseMillis.get());
+    }
+
+    private void collectPools(MetricBuffer buffer) {
+        long heapLive = 0L;
+        for (MemoryPoolMXBean pool : memoryPools) {
+            if (!pool.isValid()) {
+                continue;
+            }
+            if (pool.getType() == MemoryType.HEAP) {
+                MemoryUsage afterGc = pool.getCollectionUsage();
+                if (afterGc != null) {
+                    heapLive += afterGc.getUsed();
+                }
+            } else if ("Metaspace".equals(pool.getName())) {
+                MemoryUsage usage = pool.getUsage();
+                buffer.putLong("metaspace_used_bytes", usage.getUsed());
+                buffer.putLong("metaspace_committed_bytes", usage.getCommitted());
+            }
+        }
+        // Unlike used = total - free, this does not swing with GC timing
+        buffer.putLong("heap_after_gc_bytes", heapLive);
+    }
+
+    private void collectBufferPools(MetricBuffer buffer) {
+        for (BufferPoolMXBean pool : bufferPools) {
+            if ("direct".equals(pool.getName())) {
+                buffer.putLong("direct_buffer_count", pool.getCount());
+                buffer.putLong("direct_buffer_used_bytes", pool.getMemoryUsed());
+            } else if ("mapped".equals(pool.getName())) {
+                buffer.putLong("mapped_buffer_count", pool.getCount());
+                buffer.putLong("mapped_buffer_used_bytes", pool.getMemoryUsed());
+            }
+        }
+    }
+
+    private void collectAllocationRate(MetricBuffer buffer) {
+        if (threadBean == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        if (lastAllocatedBytes >= 0L && now > lastSampleNanos) {
+            // Without the total counter, threads that exited drop out of the
+            // sum; never report a negative rate for that
+            long delta = Math.max(0L, allocated - lastAllocatedBytes);
+            buffer.putLong("allocation_rate_bytes_per_sec", (long) (delta * 1e9 / (now - lastSampleNanos)));
+        }
+        lastAllocatedBytes = allocated;
+        lastSampleNanos = now;
+    }
+
+    private long allocatedBytes() {
+        if (totalAllocatedBytes != null) {
+            try {
+                return (long) totalAllocatedBytes.invokeExact();
+            } catch (Throwable e) {
+                totalAllocatedBytes = null;
+            }
+        }
+        long total = 0L;
+        for (long bytes : ((com.sun.management.ThreadMXBean) threadBean)
+                .getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (bytes > 0L) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static boolean isConcurrent(String collector) {
+        return collector.endsWith("Cycles") || collector.contains("Concurrent");
+    }
+}
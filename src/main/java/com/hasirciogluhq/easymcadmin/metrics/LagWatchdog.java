@@ -0,0 +1,257 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.packets.ServerLagSpikePacket;
+import com.hasirciogluhq.easymcadmin.transport.TransportManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lag Watchdog - catches single long ticks while they happen
+ * A watchdog thread compares the time since TickMonitor last saw a tick with
+ * the threshold. Once exceeded, it captures the main thread's stack every
+ * capture interval until the tick completes, so the stacks show what the
+ * server was doing during the freeze, not after it.
+ *
+ * While the tick is still stuck, server.lag_spike is sent with ongoing: true
+ * after the first capture and again once max captures is reached, so a hang
+ * that never ends still reports its stacks. Finished spikes are kept in a
+ * bounded ring (server.lag_spikes RPC) and sent as a final server.lag_spike
+ * event with duration_ms; started_at ties the events of one spike together. The watchdog only reads the main thread's
+ * stack through ThreadMXBean; it never runs anything on the main thread.
+ */
+public class LagWatchdog implements MetricSource {
+    private final EasyMcAdmin plugin;
+    private final TickMonitor tickMonitor;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final long mainThreadId;
+    private final long thresholdNanos;
+    private final long captureIntervalNanos;
+    private final int maxCaptures;
+    private final int maxDepth;
+    private final int ringSize;
+
+    private final ArrayDeque<JsonObject> ring = new ArrayDeque<>();
+    private final AtomicLong spikeCount = new AtomicLong();
+    private final AtomicLong spikeMaxMillis = new AtomicLong();
+    private volatile boolean running = false;
+    private Thread thread;
+
+    /**
+     * Create a watchdog
+     *
+     * @param plugin            Plugin instance
+     * @param tickMonitor       Source of tick timestamps
+     * @param mainThread        The server main thread
+     * @param thresholdMs       Time since the last tick that counts as a spike
+     * @param captureIntervalMs Time between stack captures during a spike
+     * @param maxCaptures       Stack captures per spike at most
+     * @param maxDepth          Innermost frames kept per capture
+     * @param ringSize          Finished spikes kept
+     */
+    public LagWatchdog(EasyMcAdmin plugin, TickMonitor tickMonitor, Thread mainThread, long thresholdMs,
+            long captureIntervalMs, int maxCaptures, int maxDepth, int ringSize) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        this.mainThreadId = mainThread.getId();
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(100L, thresholdMs));
+        this.captureIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10L, captureIntervalMs));
+        this.maxCaptures = Math.max(1, maxCaptures);
+        this.maxDepth = Math.max(1, maxDepth);
+        this.ringSize = Math.max(1, ringSize);
+    }
+
+    @Override
+    public String getName() {
+        return "lag_watchdog";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    /**
+     * Start the watchdog thread
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::watch, "EasyMcAdmin-Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the watchdog thread
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread = null;
+        }
+    }
+
+    /**
+     * Get the recent spikes, oldest first
+     *
+     * @return JsonArray of spikes
+     */
+    public JsonArray getRecentSpikes() {
+        JsonArray spikes = new JsonArray();
+        synchronized (ring) {
+            for (JsonObject spike : ring) {
+                spikes.add(spike);
+            }
+        }
+        return spikes;
+    }
+
+    /**
+     * Add spike counters to a metrics packet and start a new interval
+     * Keys: lag_spikes, lag_spike_max_ms.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        buffer.putLong("lag_spikes", spikeCount.getAndSet(0L));
+        buffer.putLong("lag_spike_max_ms", spikeMaxMillis.getAndSet(0L));
+    }
+
+    private void watch() {
+        // Check often enough to start capturing close to the threshold
+        long pollNanos = Math.min(captureIntervalNanos, thresholdNanos / 4);
+        while (running) {
+            LockSupport.parkNanos(pollNanos);
+            long lastTick = tickMonitor.getLastTickNanos();
+            if (lastTick == 0L || System.nanoTime() - lastTick < thresholdNanos) {
+                continue;
+            }
+            try {
+                captureSpike(lastTick);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Lag watchdog failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Capture stacks until the stuck tick completes
+     *
+     * @param lastTick Time of the last tick before the spike
+     */
+    private void captureSpike(long lastTick) {
+        long startedAtMillis = System.currentTimeMillis()
+                - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastTick);
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        long gcBefore = gcMonitor != null ? gcMonitor.getTotalPauseMillis() : 0L;
+
+        JsonArray captures = new JsonArray();
+        StackTraceElement[] previous = null;
+        long nextCapture = System.nanoTime();
+        while (running && tickMonitor.getLastTickNanos() == lastTick) {
+            long now = System.nanoTime();
+            if (now < nextCapture) {
+                LockSupport.parkNanos(Math.min(nextCapture - now, TimeUnit.MILLISECONDS.toNanos(5)));
+                continue;
+            }
+            if (captures.size() < maxCaptures) {
+                ThreadInfo info = threadBean.getThreadInfo(mainThreadId, maxDepth);
+                if (info == null) {
+                    return; // Main thread is gone (shutdown)
+                }
+                StackTraceElement[] stack = info.getStackTrace();
+
+                JsonObject capture = new JsonObject();
+                capture.addProperty("offset_ms", TimeUnit.NANOSECONDS.toMillis(now - lastTick));
+                capture.addProperty("thread_state", info.getThreadState().name());
+                if (Arrays.equals(stack, previous)) {
+                    // Stuck in the same place; do not repeat the stack
+                    capture.addProperty("same_as_previous", true);
+                } else {
+                    JsonArray frames = new JsonArray(stack.length);
+                    for (StackTraceElement element : stack) {
+                        frames.add(element.toString());
+                    }
+                    capture.add("stack", frames);
+                    previous = stack;
+                }
+                captures.add(capture);
+                if (captures.size() == 1 || captures.size() == maxCaptures) {
+                    send(ongoingSpike(startedAtMillis, now - lastTick, captures));
+                }
+            }
+            nextCapture += captureIntervalNanos;
+        }
+        if (!running) {
+            return;
+        }
+
+        long endTick = tickMonitor.getLastTickNanos();
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(endTick - lastTick);
+
+        JsonObject spike = new JsonObject();
+        spike.addProperty("started_at", startedAtMillis);
+        spike.addProperty("ongoing", false);
+        spike.addProperty("duration_ms", durationMillis);
+        spike.addProperty("threshold_ms", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        if (gcMonitor != null) {
+            // GC pauses that ended during the spike
+            spike.addProperty("gc_pause_ms", gcMonitor.getTotalPauseMillis() - gcBefore);
+        }
+        spike.add("captures", captures);
+
+        spikeCount.incrementAndGet();
+        spikeMaxMillis.accumulateAndGet(durationMillis, Math::max);
+        synchronized (ring) {
+            if (ring.size() == ringSize) {
+                ring.pollFirst();
+            }
+            ring.addLast(spike);
+        }
+        send(spike);
+    }
+
+    /**
+     * In-progress event for a spike whose tick has not completed yet
+     *
+     * @param startedAtMillis Wall clock time of the last tick before the spike
+     * @param elapsedNanos    Time since that tick
+     * @param captures        Captures so far
+     * @return Spike payload with ongoing: true and elapsed_ms
+     */
+    private JsonObject ongoingSpike(long startedAtMillis, long elapsedNanos, JsonArray captures) {
+        JsonObject spike = new JsonObject();
+        spike.addProperty("started_at", startedAtMillis);
+        spike.addProperty("ongoing", true);
+        spike.addProperty("elapsed_ms", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        spike.addProperty("threshold_ms", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        spike.add("captures", captures.deepCopy());
+        return spike;
+    }
+
+    private void send(JsonObject spike) {
+        TransportManager transportManager = plugin.getTransportManager();
+        if (transportManager == null || !transportManager.isConnected() || !transportManager.isAuthenticated()) {
+            return;
+        }
+        try {
+            transportManager.sendPacket(new ServerLagSpikePacket(spike));
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to send lag spike: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram - lock-free, allocation-free recording of long values
+ * Log-linear buckets in the style of HdrHistogram: every power of two is split
+ * into 32 linear sub-buckets, so recorded values keep ~3% precision from 1 up
+ * to 2^40. Values are unit-agnostic; callers usually record microseconds.
+ *
+ * record() may be called from any thread. Reads are not atomic across buckets,
+ * which is fine for monitoring.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one value
+     *
+     * @param value Value to record, negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalSum.get() / count : 0.0;
+    }
+
+    /**
+     * Get the value at a percentile
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket holding the percentile, 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        return valueAtPercentile(copyCounts(), percentile, max.get());
+    }
+
+    /**
+     * Copy this histogram's state, then clear it
+     * Used for interval reporting (e.g. "since the last metrics packet").
+     *
+     * @return Histogram holding the values recorded since the last reset
+     */
+    public LatencyHistogram snapshotAndReset() {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.getAndSet(i, 0L);
+            if (count != 0L) {
+                snapshot.counts.set(i, count);
+            }
+        }
+        snapshot.totalCount.set(totalCount.getAndSet(0L));
+        snapshot.totalSum.set(totalSum.getAndSet(0L));
+        snapshot.max.set(max.getAndSet(0L));
+        return snapshot;
+    }
+
+    /**
+     * Summarize as JSON: count, mean, p50, p90, p99, p999, max
+     *
+     * @return JsonObject summary
+     */
+    public JsonObject toJson() {
+        long[] snapshot = copyCounts();
+        long maxValue = max.get();
+
+        JsonObject json = new JsonObject();
+        json.addProperty("count", getCount());
+        json.addProperty("mean", Math.round(getMean()));
+        json.addProperty("p50", valueAtPercentile(snapshot, 50.0, maxValue));
+        json.addProperty("p90", valueAtPercentile(snapshot, 90.0, maxValue));
+        json.addProperty("p99", valueAtPercentile(snapshot, 99.0, maxValue));
+        json.addProperty("p999", valueAtPercentile(snapshot, 99.9, maxValue));
+        json.addProperty("max", maxValue);
+        return json;
+    }
+
+    private long[] copyCounts() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    private static long valueAtPercentile(long[] snapshot, double percentile, long maxValue) {
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0L;
+        }
+
+        long target = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, percentile) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                // The last bucket also holds everything above its range
+                return i == snapshot.length - 1 ? maxValue : Math.min(upperBoundOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+}
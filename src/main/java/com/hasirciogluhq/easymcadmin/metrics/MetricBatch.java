@@ -0,0 +1,163 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metric Batch - columnar buffer of metric samples
+ * Each sample row is split into one column per metric. When the batch is
+ * encoded, every column (and the timestamps) becomes: first value, then the
+ * difference to the previous value, each zigzag varint encoded and the
+ * column Base64'd. Slowly changing metrics end up at about one byte per sample.
+ *
+ * Doubles are stored as fixed point (value * scale, scale = 1000, rounded to
+ * the nearest step). A column that first appears mid-batch carries the row it
+ * starts at; a missing value repeats the previous one. NaN and infinite
+ * doubles count as missing. Not thread-safe.
+ */
+public class MetricBatch {
+    public static final String ENCODING = "zigzag-delta-varint-base64";
+    private static final int DOUBLE_SCALE = 1000;
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private long[] timestamps = new long[16];
+    private int rows = 0;
+
+    private static final class Column {
+        final int scale;
+        final int firstRow;
+        long[] values = new long[16];
+        int size = 0;
+
+        Column(int scale, int firstRow) {
+            this.scale = scale;
+            this.firstRow = firstRow;
+        }
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Repeat the last value up to (excluding) row
+        void fillTo(int row) {
+            while (firstRow + size < row) {
+                add(size > 0 ? values[size - 1] : 0L);
+            }
+        }
+    }
+
+    /**
+     * Append one row of samples
+     * Only numeric values are kept.
+     *
+     * @param timestamp Sample time in milliseconds
+     * @param row       Sampled values
+     */
+    public void append(long timestamp, MetricBuffer row) {
+        for (int i = 0; i < row.size(); i++) {
+            if (!row.isNumeric(i)) {
+                continue;
+            }
+            boolean isDouble = row.isDouble(i);
+            if (isDouble && !Double.isFinite(row.getDouble(i))) {
+                continue; // No fixed-point value; the cell repeats the previous one
+            }
+            String key = row.getKey(i);
+            Column column = columns.get(key);
+            if (column == null) {
+                column = new Column(isDouble ? DOUBLE_SCALE : 1, rows);
+                columns.put(key, column);
+            }
+            column.fillTo(rows);
+            if (column.firstRow + column.size > rows) {
+                continue; // Key appeared twice in one row
+            }
+            column.add(isDouble ? Math.round(row.getDouble(i) * column.scale) : row.getLong(i));
+        }
+
+        if (rows == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, rows * 2);
+        }
+        timestamps[rows++] = timestamp;
+    }
+
+    /**
+     * Get the number of rows
+     *
+     * @return Rows appended since the last reset
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Encode all rows as columns
+     * Payload: encoding, rows, timestamps, columns.{name}.{scale, first_row, data}.
+     *
+     * @return JsonObject with the encoded columns
+     */
+    public JsonObject encode() {
+        JsonObject columnsJson = new JsonObject();
+        for (Map.Entry<String, Column> entry : columns.entrySet()) {
+            Column column = entry.getValue();
+            column.fillTo(rows);
+
+            JsonObject json = new JsonObject();
+            json.addProperty("scale", column.scale);
+            json.addProperty("first_row", column.firstRow);
+            json.addProperty("data", encode(column.values, column.size));
+            columnsJson.add(entry.getKey(), json);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("encoding", ENCODING);
+        json.addProperty("rows", rows);
+        json.addProperty("timestamps", encode(timestamps, rows));
+        json.add("columns", columnsJson);
+        return json;
+    }
+
+    /**
+     * Remove all rows
+     * Columns are dropped too, so metrics that stopped reporting disappear.
+     */
+    public void reset() {
+        columns.clear();
+        rows = 0;
+    }
+
+    /**
+     * Delta + zigzag varint encode a series
+     *
+     * @param values Values
+     * @param count  Number of values to encode
+     * @return Base64 of the encoded bytes
+     */
+    public static String encode(long[] values, int count) {
+        byte[] out = new byte[Math.max(16, count * 2)];
+        int position = 0;
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            long delta = values[i] - previous;
+            previous = values[i];
+            long zigzag = (delta << 1) ^ (delta >> 63);
+
+            if (position + 10 > out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            while ((zigzag & ~0x7FL) != 0L) {
+                out[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            out[position++] = (byte) zigzag;
+        }
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(out, position));
+    }
+}
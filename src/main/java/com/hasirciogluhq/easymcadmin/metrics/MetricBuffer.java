@@ -0,0 +1,175 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+
+/**
+ * Metric Buffer - reusable key/value buffer for one metrics packet
+ * Numbers are kept in primitive arrays, so filling the buffer does not box.
+ * clear() keeps the arrays for the next collection. Not thread-safe.
+ */
+public class MetricBuffer {
+    private static final byte TYPE_LONG = 0;
+    private static final byte TYPE_DOUBLE = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_JSON = 4;
+
+    private String[] keys;
+    private byte[] types;
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+    private int size = 0;
+    private boolean batchSampled = false;
+
+    public MetricBuffer() {
+        this(64);
+    }
+
+    public MetricBuffer(int initialCapacity) {
+        int capacity = Math.max(8, initialCapacity);
+        keys = new String[capacity];
+        types = new byte[capacity];
+        longs = new long[capacity];
+        doubles = new double[capacity];
+        objects = new Object[capacity];
+    }
+
+    /**
+     * Set whether the per-second scalars of sample() are sent in the metrics
+     * batch; collect() then leaves them out of this buffer
+     *
+     * @param batchSampled true if the batch carries the sampled values
+     */
+    public void setBatchSampled(boolean batchSampled) {
+        this.batchSampled = batchSampled;
+    }
+
+    public boolean isBatchSampled() {
+        return batchSampled;
+    }
+
+    /**
+     * Remove all values, keeping the allocated arrays
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    public void putLong(String key, long value) {
+        longs[slot(key, TYPE_LONG)] = value;
+    }
+
+    public void putDouble(String key, double value) {
+        doubles[slot(key, TYPE_DOUBLE)] = value;
+    }
+
+    public void putBoolean(String key, boolean value) {
+        longs[slot(key, TYPE_BOOLEAN)] = value ? 1L : 0L;
+    }
+
+    public void putString(String key, String value) {
+        objects[slot(key, TYPE_STRING)] = value;
+    }
+
+    public void putJson(String key, JsonElement value) {
+        objects[slot(key, TYPE_JSON)] = value;
+    }
+
+    /**
+     * Append all values of another buffer
+     *
+     * @param other Buffer to copy from
+     */
+    public void putAll(MetricBuffer other) {
+        for (int i = 0; i < other.size; i++) {
+            int index = slot(other.keys[i], other.types[i]);
+            longs[index] = other.longs[i];
+            doubles[index] = other.doubles[i];
+            objects[index] = other.objects[i];
+        }
+    }
+
+    /**
+     * Get the number of values
+     *
+     * @return Value count
+     */
+    public int size() {
+        return size;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Check if a value is a number (long, double or boolean)
+     *
+     * @param index Value index
+     * @return true for numeric values
+     */
+    public boolean isNumeric(int index) {
+        return types[index] <= TYPE_BOOLEAN;
+    }
+
+    public boolean isDouble(int index) {
+        return types[index] == TYPE_DOUBLE;
+    }
+
+    public long getLong(int index) {
+        return longs[index];
+    }
+
+    public double getDouble(int index) {
+        return doubles[index];
+    }
+
+    /**
+     * Write all values into a JSON object
+     *
+     * @return JsonObject with one property per value
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < size; i++) {
+            switch (types[i]) {
+                case TYPE_LONG:
+                    json.addProperty(keys[i], longs[i]);
+                    break;
+                case TYPE_DOUBLE:
+                    json.addProperty(keys[i], doubles[i]);
+                    break;
+                case TYPE_BOOLEAN:
+                    json.addProperty(keys[i], longs[i] != 0L);
+                    break;
+                case TYPE_STRING:
+                    json.addProperty(keys[i], (String) objects[i]);
+                    break;
+                default:
+                    json.add(keys[i], (JsonElement) objects[i]);
+                    break;
+            }
+        }
+        return json;
+    }
+
+    private int slot(String key, byte type) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            types = Arrays.copyOf(types, capacity);
+            longs = Arrays.copyOf(longs, capacity);
+            doubles = Arrays.copyOf(doubles, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        int index = size++;
+        keys[index] = key;
+        types[index] = type;
+        return index;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+/**
+ * Metric Source - one group of metrics registered with ServerMetricsCollector
+ * Sources resolve whatever they need (method handles, MX beans, parsed
+ * version strings) once in resolve(), so collect() only reads values.
+ */
+public interface MetricSource {
+
+    /**
+     * How often a source's values change
+     */
+    enum Kind {
+        /**
+         * Fixed for the server's lifetime; sent once per session in server_info
+         */
+        STATIC,
+
+        /**
+         * Sent with every server_metrics packet
+         */
+        DYNAMIC
+    }
+
+    /**
+     * Get the source name, used in logs
+     *
+     * @return Source name
+     */
+    String getName();
+
+    /**
+     * Get whether the source is static or dynamic
+     *
+     * @return Source kind
+     */
+    Kind getKind();
+
+    /**
+     * Check if collect() must run on the main thread
+     * Main-thread sources run inside the tick and should only copy primitives
+     * (e.g. counts); everything else is collected asynchronously.
+     *
+     * @return true if the source reads state that is only safe on the main thread
+     */
+    default boolean isMainThread() {
+        return false;
+    }
+
+    /**
+     * Resolve everything the source needs, called once at enable
+     *
+     * @return false if the source is unavailable on this server and should be skipped
+     */
+    default boolean resolve() {
+        return true;
+    }
+
+    /**
+     * Write the source's current values
+     *
+     * @param buffer Buffer to write into
+     */
+    void collect(MetricBuffer buffer);
+
+    /**
+     * Write cheap scalar values for the high-resolution metrics batch
+     * Called about once per second, so only numbers that are cheap to read and
+     * meaningful per second belong here. Must not reset interval state that
+     * collect() reports. While the batch is sent, collect() leaves these values
+     * out (see {@link MetricBuffer#isBatchSampled()}).
+     *
+     * @param buffer Buffer to write into
+     */
+    default void sample(MetricBuffer buffer) {
+    }
+
+    /**
+     * Write large, slowly changing tables (per pool, per world, per action)
+     * Added to every server_metrics packet only once per structure interval
+     * instead of every packet.
+     *
+     * @param buffer Buffer to write into
+     */
+    default void collectStructure(MetricBuffer buffer) {
+    }
+}
@@ -0,0 +1,512 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics History - local retention of sampled metrics, kept while offline
+ * Three fixed-size rings in one buffer:
+ * - 1s: the last hour of samples, one slot per second
+ * - 1m: one rollup per minute (min, max, avg, p50, p95, p99)
+ * - 1h: one rollup per hour, same fields
+ *
+ * Slots hold their period number, so a slot left over from an older period
+ * (gap, restart) is recognized and skipped. Rollups are computed from the 1s
+ * ring when a minute or hour closes; it always still holds the whole period,
+ * so percentiles are exact rather than sketched.
+ *
+ * The buffer is either on the heap or a memory-mapped file, in which case
+ * the history survives restarts. Series (numeric sample keys) get a column
+ * the first time they are seen, up to max-series. Thread-safe.
+ */
+public class MetricsHistory {
+    private static final long MAGIC = 0x454d41484953544cL; // "EMAHISTL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8192;
+    private static final int NAME_BYTES = 64;
+    private static final int NAMES_OFFSET = 40;
+    private static final int MAX_SERIES = (HEADER_BYTES - NAMES_OFFSET) / NAME_BYTES;
+    private static final int RAW_SLOTS = 3600;
+    private static final int ROLLUP_FIELDS = 6;
+    private static final String[] ROLLUP_NAMES = { "min", "max", "avg", "p50", "p95", "p99" };
+
+    /**
+     * Stored resolutions
+     */
+    public enum Resolution {
+        SECOND("1s", 1L),
+        MINUTE("1m", 60L),
+        HOUR("1h", 3600L);
+
+        private final String key;
+        private final long seconds;
+
+        Resolution(String key, long seconds) {
+            this.key = key;
+            this.seconds = seconds;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Find a resolution by key
+         *
+         * @param key "1s", "1m" or "1h"
+         * @return Resolution, or null if unknown
+         */
+        public static Resolution fromKey(String key) {
+            for (Resolution resolution : values()) {
+                if (resolution.key.equals(key)) {
+                    return resolution;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final int maxSeries;
+    private final int minuteSlots;
+    private final int hourSlots;
+    private final int rawStride;
+    private final int rollupStride;
+    private final int minuteOffset;
+    private final int hourOffset;
+
+    private final ByteBuffer store;
+    private final DoubleBuffer data;
+    private final FileChannel channel;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private String[] names;
+    private long lastSecond;
+    private final double[] scratch = new double[RAW_SLOTS];
+
+    /**
+     * Create a history store
+     *
+     * @param maxSeries     Most series kept (columns)
+     * @param minuteHours   Hours of 1-minute rollups kept
+     * @param hourDays      Days of 1-hour rollups kept
+     * @param file          File to memory-map, or null to keep the history on the heap
+     * @throws IOException if the file cannot be mapped
+     */
+    public MetricsHistory(int maxSeries, int minuteHours, int hourDays, File file) throws IOException {
+        this.maxSeries = Math.max(1, Math.min(MAX_SERIES, maxSeries));
+        this.minuteSlots = Math.max(1, minuteHours) * 60;
+        this.hourSlots = Math.max(1, hourDays) * 24;
+        this.rawStride = 1 + this.maxSeries;
+        this.rollupStride = 2 + this.maxSeries * ROLLUP_FIELDS;
+        this.minuteOffset = RAW_SLOTS * rawStride;
+        this.hourOffset = minuteOffset + minuteSlots * rollupStride;
+        this.names = new String[this.maxSeries];
+
+        long size = HEADER_BYTES + (long) (hourOffset + hourSlots * rollupStride) * Double.BYTES;
+        if (file != null) {
+            File parent = file.getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            store = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+        } else {
+            channel = null;
+            store = ByteBuffer.allocate((int) size);
+        }
+        data = store.duplicate().position(HEADER_BYTES).slice().asDoubleBuffer();
+
+        if (!load()) {
+            initialize();
+        }
+    }
+
+    /**
+     * Get the memory used by the store
+     *
+     * @return Size in bytes
+     */
+    public long getSizeBytes() {
+        return store.capacity();
+    }
+
+    /**
+     * Record one row of samples
+     * Only numeric values are kept. Samples within the same second replace
+     * each other; samples older than the newest are dropped.
+     *
+     * @param timestamp Sample time in milliseconds
+     * @param row       Sampled values
+     */
+    public synchronized void record(long timestamp, MetricBuffer row) {
+        long second = timestamp / 1000L;
+        if (second < lastSecond) {
+            return;
+        }
+        if (lastSecond > 0L && second != lastSecond) {
+            if (second / 60L != lastSecond / 60L) {
+                rollup(Resolution.MINUTE, lastSecond / 60L);
+            }
+            if (second / 3600L != lastSecond / 3600L) {
+                rollup(Resolution.HOUR, lastSecond / 3600L);
+            }
+        }
+
+        int base = (int) (second % RAW_SLOTS) * rawStride;
+        if (second != lastSecond) {
+            data.put(base, second);
+            for (int c = 0; c < maxSeries; c++) {
+                data.put(base + 1 + c, Double.NaN);
+            }
+        }
+        for (int i = 0; i < row.size(); i++) {
+            if (!row.isNumeric(i)) {
+                continue;
+            }
+            int column = column(row.getKey(i));
+            if (column >= 0) {
+                data.put(base + 1 + column, row.isDouble(i) ? row.getDouble(i) : row.getLong(i));
+            }
+        }
+        lastSecond = second;
+        store.putLong(32, lastSecond);
+    }
+
+    /**
+     * Read one page of history
+     * Payload fields of the page: resolution, step_ms, timestamps[] (only
+     * periods with data), samples[] (rollups: 1s samples per period),
+     * series.{name} (1s: values[], null if missing;
+     * rollups: {min, max, avg, p50, p95, p99} arrays) and next_from, set
+     * when the page was cut at limit points.
+     *
+     * @param resolution Resolution to read
+     * @param fromMillis Range start (inclusive)
+     * @param toMillis   Range end (exclusive)
+     * @param keys       Series to include, or null for all
+     * @param limit      Most points in the page
+     * @return JsonObject page
+     */
+    public synchronized JsonObject read(Resolution resolution, long fromMillis, long toMillis, Collection<String> keys,
+            int limit) {
+        int[] selected = selectColumns(keys);
+        long firstPeriod = Math.max(earliestPeriod(resolution), Math.floorDiv(fromMillis / 1000L, resolution.seconds));
+        long endPeriod = Math.min(lastSecond / resolution.seconds + 1L,
+                Math.floorDiv(toMillis / 1000L + resolution.seconds - 1L, resolution.seconds));
+
+        JsonArray timestamps = new JsonArray();
+        JsonArray samples = new JsonArray();
+        JsonArray[][] values = new JsonArray[selected.length][resolution == Resolution.SECOND ? 1 : ROLLUP_FIELDS];
+        for (JsonArray[] fields : values) {
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = new JsonArray();
+            }
+        }
+
+        long nextFrom = -1L;
+        int points = 0;
+        for (long period = firstPeriod; period < endPeriod; period++) {
+            int base = slotBase(resolution, period);
+            if (base < 0) {
+                continue;
+            }
+            if (points == limit) {
+                nextFrom = period * resolution.seconds * 1000L;
+                break;
+            }
+            points++;
+            timestamps.add(period * resolution.seconds * 1000L);
+            if (resolution != Resolution.SECOND) {
+                samples.add((long) data.get(base + 1));
+            }
+            for (int s = 0; s < selected.length; s++) {
+                if (resolution == Resolution.SECOND) {
+                    add(values[s][0], data.get(base + 1 + selected[s]));
+                } else {
+                    int field = base + 2 + selected[s] * ROLLUP_FIELDS;
+                    for (int f = 0; f < ROLLUP_FIELDS; f++) {
+                        add(values[s][f], data.get(field + f));
+                    }
+                }
+            }
+        }
+
+        JsonObject series = new JsonObject();
+        for (int s = 0; s < selected.length; s++) {
+            if (resolution == Resolution.SECOND) {
+                series.add(names[selected[s]], values[s][0]);
+            } else {
+                JsonObject fields = new JsonObject();
+                for (int f = 0; f < ROLLUP_FIELDS; f++) {
+                    fields.add(ROLLUP_NAMES[f], values[s][f]);
+                }
+                series.add(names[selected[s]], fields);
+            }
+        }
+
+        JsonObject page = new JsonObject();
+        page.addProperty("resolution", resolution.key);
+        page.addProperty("step_ms", resolution.seconds * 1000L);
+        page.add("timestamps", timestamps);
+        if (resolution != Resolution.SECOND) {
+            page.add("samples", samples);
+        }
+        page.add("series", series);
+        if (nextFrom >= 0L) {
+            page.addProperty("next_from", nextFrom);
+        }
+        return page;
+    }
+
+    /**
+     * Pick the finest resolution that still has data at the range start and
+     * needs at most maxPoints points for the range
+     *
+     * @param fromMillis Range start
+     * @param toMillis   Range end
+     * @param maxPoints  Most points wanted
+     * @return Resolution
+     */
+    public synchronized Resolution pickResolution(long fromMillis, long toMillis, int maxPoints) {
+        long seconds = Math.max(1L, (toMillis - fromMillis) / 1000L);
+        for (Resolution resolution : Resolution.values()) {
+            boolean covered = fromMillis / 1000L / resolution.seconds >= earliestPeriod(resolution);
+            if (covered && seconds / resolution.seconds <= maxPoints) {
+                return resolution;
+            }
+        }
+        return Resolution.HOUR;
+    }
+
+    /**
+     * Get the retention of each resolution and the known series
+     * Keys: series[], size_bytes, persistent, newest, and per resolution
+     * ({1s,1m,1h}) the oldest timestamp that can still be held.
+     *
+     * @return JsonObject description
+     */
+    public synchronized JsonObject describe() {
+        JsonArray series = new JsonArray();
+        for (int c = 0; c < columns.size(); c++) {
+            series.add(names[c]);
+        }
+        JsonObject retention = new JsonObject();
+        for (Resolution resolution : Resolution.values()) {
+            retention.addProperty(resolution.key, earliestPeriod(resolution) * resolution.seconds * 1000L);
+        }
+
+        JsonObject json = new JsonObject();
+        json.add("series", series);
+        json.addProperty("size_bytes", getSizeBytes());
+        json.addProperty("persistent", channel != null);
+        json.addProperty("newest", lastSecond * 1000L);
+        json.add("oldest", retention);
+        return json;
+    }
+
+    /**
+     * Flush a mapped file and release it
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        ((MappedByteBuffer) store).force();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // ============================================================================
+    // ROLLUPS
+    // ============================================================================
+
+    /**
+     * Roll the 1s samples of one closed minute or hour up into its ring
+     */
+    private void rollup(Resolution resolution, long period) {
+        long firstSecond = period * resolution.seconds;
+        int base = (int) (period % slotCount(resolution)) * rollupStride + offset(resolution);
+        data.put(base, period);
+
+        int rows = 0;
+        for (long second = firstSecond; second < firstSecond + resolution.seconds; second++) {
+            if (data.get((int) (second % RAW_SLOTS) * rawStride) == second) {
+                rows++;
+            }
+        }
+        data.put(base + 1, rows);
+
+        for (int c = 0; c < maxSeries; c++) {
+            int count = 0;
+            if (c < columns.size()) {
+                for (long second = firstSecond; second < firstSecond + resolution.seconds; second++) {
+                    int slot = (int) (second % RAW_SLOTS) * rawStride;
+                    if (data.get(slot) == second) {
+                        double value = data.get(slot + 1 + c);
+                        if (!Double.isNaN(value)) {
+                            scratch[count++] = value;
+                        }
+                    }
+                }
+            }
+
+            int field = base + 2 + c * ROLLUP_FIELDS;
+            if (count == 0) {
+                for (int f = 0; f < ROLLUP_FIELDS; f++) {
+                    data.put(field + f, Double.NaN);
+                }
+                continue;
+            }
+            Arrays.sort(scratch, 0, count);
+            double sum = 0.0;
+            for (int i = 0; i < count; i++) {
+                sum += scratch[i];
+            }
+            data.put(field, scratch[0]);
+            data.put(field + 1, scratch[count - 1]);
+            data.put(field + 2, sum / count);
+            data.put(field + 3, percentile(count, 50.0));
+            data.put(field + 4, percentile(count, 95.0));
+            data.put(field + 5, percentile(count, 99.0));
+        }
+    }
+
+    // Nearest rank on the sorted scratch values
+    private double percentile(int count, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return scratch[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    // ============================================================================
+    // LAYOUT
+    // ============================================================================
+
+    private int slotCount(Resolution resolution) {
+        switch (resolution) {
+            case SECOND:
+                return RAW_SLOTS;
+            case MINUTE:
+                return minuteSlots;
+            default:
+                return hourSlots;
+        }
+    }
+
+    private int offset(Resolution resolution) {
+        switch (resolution) {
+            case SECOND:
+                return 0;
+            case MINUTE:
+                return minuteOffset;
+            default:
+                return hourOffset;
+        }
+    }
+
+    /**
+     * Get the buffer index of a period's slot
+     *
+     * @return Index, or -1 if the slot holds another period (or nothing)
+     */
+    private int slotBase(Resolution resolution, long period) {
+        int stride = resolution == Resolution.SECOND ? rawStride : rollupStride;
+        int base = offset(resolution) + (int) (period % slotCount(resolution)) * stride;
+        return data.get(base) == period ? base : -1;
+    }
+
+    private long earliestPeriod(Resolution resolution) {
+        return Math.max(1L, lastSecond / resolution.seconds - slotCount(resolution) + 1L);
+    }
+
+    private int[] selectColumns(Collection<String> keys) {
+        if (keys == null) {
+            int[] all = new int[columns.size()];
+            for (int c = 0; c < all.length; c++) {
+                all[c] = c;
+            }
+            return all;
+        }
+        return keys.stream().map(columns::get).filter(c -> c != null).mapToInt(Integer::intValue).toArray();
+    }
+
+    private int column(String key) {
+        Integer column = columns.get(key);
+        if (column != null) {
+            return column;
+        }
+        byte[] name = key.getBytes(StandardCharsets.UTF_8);
+        if (columns.size() == maxSeries || name.length > NAME_BYTES - 2) {
+            return -1;
+        }
+        int index = columns.size();
+        columns.put(key, index);
+        names[index] = key;
+        int position = NAMES_OFFSET + index * NAME_BYTES;
+        store.putShort(position, (short) name.length);
+        store.put(position + 2, name);
+        store.putInt(28, columns.size());
+        return index;
+    }
+
+    private static void add(JsonArray array, double value) {
+        if (Double.isNaN(value)) {
+            array.add((Number) null);
+        } else {
+            array.add(value);
+        }
+    }
+
+    /**
+     * Read the header of an existing file
+     *
+     * @return false if the buffer has no history of the same layout
+     */
+    private boolean load() {
+        if (store.getLong(0) != MAGIC || store.getInt(8) != VERSION || store.getInt(12) != maxSeries
+                || store.getInt(16) != RAW_SLOTS || store.getInt(20) != minuteSlots
+                || store.getInt(24) != hourSlots) {
+            return false;
+        }
+        int seriesCount = store.getInt(28);
+        for (int c = 0; c < seriesCount && c < maxSeries; c++) {
+            int position = NAMES_OFFSET + c * NAME_BYTES;
+            byte[] name = new byte[Math.min(NAME_BYTES - 2, store.getShort(position))];
+            store.get(position + 2, name);
+            names[c] = new String(name, StandardCharsets.UTF_8);
+            columns.put(names[c], c);
+        }
+        lastSecond = store.getLong(32);
+        return true;
+    }
+
+    private void initialize() {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, 0.0);
+        }
+        store.putLong(0, MAGIC);
+        store.putInt(8, VERSION);
+        store.putInt(12, maxSeries);
+        store.putInt(16, RAW_SLOTS);
+        store.putInt(20, minuteSlots);
+        store.putInt(24, hourSlots);
+        store.putInt(28, 0);
+        store.putLong(32, 0L);
+        lastSecond = 0L;
+    }
+}
@@ -2,21 +2,50 @@ package com.hasirciogluhq.easymcadmin.metrics;
 
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
+import com.hasirciogluhq.easymcadmin.packets.ServerMetricsBatchPacket;
 import com.hasirciogluhq.easymcadmin.packets.ServerMetricsPacket;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Schedules and sends server metrics packets via Transport
- * Sends metrics every 3 seconds (60 ticks) after initial send
+ * Two streams, both starting on the next tick:
+ * - server_metrics: interval aggregates every interval-seconds; the large
+ *   tables (memory pools, world census, per-action RPC, listener timings) only
+ *   in the first packet and then every structure-interval-seconds
+ * - server_metrics_batch: cheap scalars sampled every sample-interval-ticks
+ *   plus every tick's duration, sent as encoded columns every flush-seconds.
+ *   While it is on, those scalars are left out of server_metrics.
+ *
+ * Sampling runs from startSampling() until shutdown(), also while
+ * disconnected, so the local MetricsHistory has no gaps; rows only go into
+ * the batch while connected.
+ *
+ * Only the main-thread snapshots are taken inside the tick; the rest of the
+ * collection, packet building and the socket write run asynchronously.
  */
 public class MetricsScheduler {
 
     private final EasyMcAdmin plugin;
     private final TransportSender sender;
+    private final long intervalTicks;
+    private final int packetsPerStructure;
+    private int packetsUntilStructure = 0;
+    private final boolean batchEnabled;
+    private final long sampleIntervalTicks;
+    private final int rowsPerBatch;
+    private final MetricBatch batch = new MetricBatch();
+    private final MetricsHistory history;
+    // Set by start(); the async sampling phase drops the rows of the last session
+    private volatile boolean resetBatch = false;
     private BukkitRunnable task;
-    private boolean isRunning;
+    private BukkitRunnable sampleTask;
+    private volatile boolean isRunning;
+    // Set while an async phase is running; its buffers are still in use
+    private final AtomicBoolean collecting = new AtomicBoolean();
+    private final AtomicBoolean sampling = new AtomicBoolean();
 
     /**
      * Interface for sending packets via Transport
@@ -29,31 +58,47 @@ public class MetricsScheduler {
 
     /**
      * Create a new MetricsScheduler
-     * 
+     *
      * @param plugin Plugin instance
      * @param sender Transport sender interface
+     * @param config  "metrics" config section, may be null
+     * @param history Local history to record samples into, may be null
      */
-    public MetricsScheduler(EasyMcAdmin plugin, TransportSender sender) {
+    public MetricsScheduler(EasyMcAdmin plugin, TransportSender sender, ConfigurationSection config,
+            MetricsHistory history) {
         this.plugin = plugin;
         this.sender = sender;
+        this.history = history;
         this.isRunning = false;
+        this.intervalTicks = Math.max(1L, config != null ? config.getLong("interval-seconds", 3) : 3) * 20L;
+        long structureTicks = Math.max(1L,
+                config != null ? config.getLong("structure-interval-seconds", 60) : 60) * 20L;
+        this.packetsPerStructure = (int) Math.max(1L, structureTicks / intervalTicks);
+        this.batchEnabled = config == null || config.getBoolean("batch.enabled", true);
+        this.sampleIntervalTicks = Math.max(1L, config != null ? config.getLong("batch.sample-interval-ticks", 20) : 20);
+        long flushTicks = Math.max(1L, config != null ? config.getLong("batch.flush-seconds", 10) : 10) * 20L;
+        this.rowsPerBatch = (int) Math.max(1L, flushTicks / sampleIntervalTicks);
+
+        if (batchEnabled && plugin.getTickMonitor() != null) {
+            plugin.getTickMonitor().setRecordSeries(true);
+        }
+        plugin.getMetricsCollector().setBatchSampled(batchEnabled);
     }
 
     /**
      * Start sending metrics
-     * Sends immediately, then every 3 seconds (60 ticks)
+     * Sends on the next tick, then every interval. Safe to call from any
+     * thread; collection always starts on the main thread.
      */
-    public void start() {
+    public synchronized void start() {
         if (isRunning) {
             return;
         }
 
         isRunning = true;
+        // A new session gets the tables with its first packet
+        packetsUntilStructure = 0;
 
-        // Send initial metrics immediately
-        sendMetrics();
-
-        // Schedule periodic sending (every 3 seconds = 60 ticks)
         task = new BukkitRunnable() {
             @Override
             public void run() {
@@ -64,13 +109,40 @@ public class MetricsScheduler {
                 sendMetrics();
             }
         };
-        task.runTaskTimer(plugin, 60L, 60L); // Start after 3 seconds, repeat every 3 seconds
+        task.runTaskTimer(plugin, 1L, intervalTicks);
+
+        if (batchEnabled) {
+            if (plugin.getTickMonitor() != null) {
+                // Ticks from before this session are not sent
+                plugin.getTickMonitor().drainSeries();
+            }
+            resetBatch = true;
+        }
+        startSampling();
+    }
+
+    /**
+     * Start sampling, if the batch or the history needs samples
+     * Keeps running while disconnected, until shutdown().
+     */
+    public synchronized void startSampling() {
+        if (sampleTask != null || (!batchEnabled && history == null)) {
+            return;
+        }
+        sampleTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                sampleMetrics();
+            }
+        };
+        sampleTask.runTaskTimer(plugin, 1L, sampleIntervalTicks);
     }
 
     /**
      * Stop sending metrics
+     * Sampling for the history continues.
      */
-    public void stop() {
+    public synchronized void stop() {
         isRunning = false;
         if (task != null) {
             task.cancel();
@@ -78,9 +150,20 @@ public class MetricsScheduler {
         }
     }
 
+    /**
+     * Stop sending and sampling (plugin disable)
+     */
+    public synchronized void shutdown() {
+        stop();
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+
     /**
      * Check if scheduler is running
-     * 
+     *
      * @return true if running
      */
     public boolean isRunning() {
@@ -89,19 +172,106 @@ public class MetricsScheduler {
 
     /**
      * Collect and send metrics packet
+     * Main thread: snapshot the main-thread sources. Async: everything else.
      */
     private void sendMetrics() {
         if (!sender.isConnected() || !sender.isAuthenticated()) {
             return;
         }
+        // The previous packet is still being built; its buffers are reused
+        if (!collecting.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean withStructure = packetsUntilStructure <= 0;
+        packetsUntilStructure = withStructure ? packetsPerStructure - 1 : packetsUntilStructure - 1;
+
+        ServerMetricsCollector collector = plugin.getMetricsCollector();
+        OverheadMonitor overhead = plugin.getOverheadMonitor();
+        long start = overhead.begin();
+        MetricBuffer snapshot;
+        try {
+            snapshot = collector.collectMainThread(withStructure);
+        } catch (Exception e) {
+            collecting.set(false);
+            plugin.getLogger().warning("Failed to collect metrics: " + e.getMessage());
+            return;
+        } finally {
+            overhead.end(OverheadMonitor.Feature.METRICS, start);
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Packet packet = new ServerMetricsPacket(collector.collectDynamic(snapshot, withStructure));
+                sender.sendPacket(packet);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to send metrics: " + e.getMessage());
+            } finally {
+                collecting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Sample one row into the history and the batch, and send the batch once
+     * it is full
+     * Same two phases as sendMetrics; the batch is only touched by the async
+     * phase, one at a time.
+     */
+    private void sampleMetrics() {
+        if (!sampling.compareAndSet(false, true)) {
+            return;
+        }
 
+        long timestamp = System.currentTimeMillis();
+        ServerMetricsCollector collector = plugin.getMetricsCollector();
+        OverheadMonitor overhead = plugin.getOverheadMonitor();
+        long start = overhead.begin();
+        MetricBuffer snapshot;
         try {
-            Map<String, Object> metrics = ServerMetricsCollector.collect();
-            Packet packet = new ServerMetricsPacket(metrics);
-            sender.sendPacket(packet);
+            snapshot = collector.sampleMainThread();
         } catch (Exception e) {
-            plugin.getLogger().warning("Failed to send metrics: " + e.getMessage());
+            sampling.set(false);
+            plugin.getLogger().warning("Failed to sample metrics: " + e.getMessage());
+            return;
+        } finally {
+            overhead.end(OverheadMonitor.Feature.METRICS, start);
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                MetricBuffer row = collector.sampleDynamic(snapshot);
+                if (history != null) {
+                    history.record(timestamp, row);
+                }
+                if (batchEnabled && isRunning) {
+                    if (resetBatch) {
+                        resetBatch = false;
+                        batch.reset();
+                    }
+                    batch.append(timestamp, row);
+                    if (batch.getRowCount() >= rowsPerBatch) {
+                        sendBatch();
+                    }
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to send metrics batch: " + e.getMessage());
+            } finally {
+                sampling.set(false);
+            }
+        });
+    }
+
+    private void sendBatch() {
+        TickMonitor tickMonitor = plugin.getTickMonitor();
+        long[] ticks = tickMonitor != null ? tickMonitor.drainSeries() : null;
+        try {
+            if (sender.isConnected() && sender.isAuthenticated()) {
+                sender.sendPacket(new ServerMetricsBatchPacket(batch.encode(),
+                        tickMonitor != null ? tickMonitor.getSource() : null, ticks));
+            }
+        } finally {
+            batch.reset();
         }
     }
 }
-
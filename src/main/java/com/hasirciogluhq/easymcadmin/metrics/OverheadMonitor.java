@@ -0,0 +1,201 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Overhead Monitor - the plugin's own main-thread time per tick
+ * Main-thread entry points (listeners, queued work, RPC handlers, metric
+ * snapshots, the console appender) wrap their work in begin()/end(). Only
+ * main-thread time is counted, so the accumulators are plain fields owned by
+ * the main thread. Nested sections count towards the outermost one.
+ *
+ * A 1-tick task closes every tick: the tick's total goes into a histogram
+ * ("EasyMcAdmin ms/tick" percentiles) and a rate-limited warning is logged
+ * with the per-feature split when it exceeds the warn budget.
+ */
+public class OverheadMonitor implements MetricSource {
+    private static final long NOT_TRACKED = Long.MIN_VALUE;
+
+    /**
+     * Plugin features that run on the main thread
+     */
+    public enum Feature {
+        INVENTORY,
+        PLAYER_DETAILS,
+        METRICS,
+        RPC,
+        CONSOLE;
+
+        private final String key = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Feature[] FEATURES = Feature.values();
+
+    private final EasyMcAdmin plugin;
+    private final Thread mainThread;
+    private final boolean enabled;
+    private final long warnBudgetNanos;
+    private final long warnIntervalNanos;
+
+    // Main thread only
+    private final long[] tickNanos = new long[FEATURES.length];
+    private int depth = 0;
+    private long lastWarnNanos = 0L;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicLongArray intervalNanos = new AtomicLongArray(FEATURES.length);
+    private final AtomicLong overBudget = new AtomicLong();
+    private BukkitTask task;
+
+    /**
+     * Create an overhead monitor
+     *
+     * @param plugin              Plugin instance
+     * @param mainThread          The server main thread
+     * @param enabled             Whether to measure at all
+     * @param warnBudgetMs        Per-tick time above which a warning is logged
+     * @param warnIntervalSeconds Minimum time between warnings
+     */
+    public OverheadMonitor(EasyMcAdmin plugin, Thread mainThread, boolean enabled, double warnBudgetMs,
+            long warnIntervalSeconds) {
+        this.plugin = plugin;
+        this.mainThread = mainThread;
+        this.enabled = enabled;
+        this.warnBudgetNanos = (long) (Math.max(0.1, warnBudgetMs) * 1_000_000L);
+        this.warnIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, warnIntervalSeconds));
+    }
+
+    /**
+     * Start closing ticks
+     */
+    public void start() {
+        if (!enabled || task != null) {
+            return;
+        }
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::endTick, 1L, 1L);
+    }
+
+    /**
+     * Stop closing ticks
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Start a measured section
+     * Usage: {@code long t = begin(); try { ... } finally { end(feature, t); }}
+     *
+     * @return Token for end(), not tracked off the main thread
+     */
+    public long begin() {
+        if (!enabled || Thread.currentThread() != mainThread) {
+            return NOT_TRACKED;
+        }
+        depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * End a measured section
+     *
+     * @param feature Feature the time is counted for
+     * @param start   Token returned by begin()
+     */
+    public void end(Feature feature, long start) {
+        if (start == NOT_TRACKED) {
+            return;
+        }
+        if (--depth == 0) {
+            tickNanos[feature.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    private void endTick() {
+        long total = 0L;
+        for (int i = 0; i < tickNanos.length; i++) {
+            total += tickNanos[i];
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(total));
+
+        if (total > warnBudgetNanos) {
+            overBudget.incrementAndGet();
+            long now = System.nanoTime();
+            if (lastWarnNanos == 0L || now - lastWarnNanos >= warnIntervalNanos) {
+                lastWarnNanos = now;
+                warn(total);
+            }
+        }
+
+        if (total > 0L) {
+            for (int i = 0; i < tickNanos.length; i++) {
+                if (tickNanos[i] != 0L) {
+                    intervalNanos.addAndGet(i, tickNanos[i]);
+                    tickNanos[i] = 0L;
+                }
+            }
+        }
+    }
+
+    private void warn(long totalNanos) {
+        StringBuilder message = new StringBuilder();
+        message.append(String.format(Locale.ROOT, "EasyMcAdmin used %.2f ms of one tick (budget %.2f ms):",
+                totalNanos / 1_000_000.0, warnBudgetNanos / 1_000_000.0));
+        for (Feature feature : FEATURES) {
+            long nanos = tickNanos[feature.ordinal()];
+            if (nanos != 0L) {
+                message.append(String.format(Locale.ROOT, " %s %.2f ms", feature.key, nanos / 1_000_000.0));
+            }
+        }
+        plugin.getLogger().warning(message.toString());
+    }
+
+    @Override
+    public String getName() {
+        return "overhead";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    @Override
+    public boolean resolve() {
+        return enabled;
+    }
+
+    /**
+     * Add the plugin's own main-thread time to a metrics packet and start a
+     * new interval
+     * Keys: self_ms_p50, self_ms_p95, self_ms_p99, self_ms_max (per tick),
+     * self_ticks_over_budget and self_ms_by_feature (totals per feature).
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        LatencyHistogram snapshot = histogram.snapshotAndReset();
+        buffer.putDouble("self_ms_p50", snapshot.getValueAtPercentile(50.0) / 1000.0);
+        buffer.putDouble("self_ms_p95", snapshot.getValueAtPercentile(95.0) / 1000.0);
+        buffer.putDouble("self_ms_p99", snapshot.getValueAtPercentile(99.0) / 1000.0);
+        buffer.putDouble("self_ms_max", snapshot.getMax() / 1000.0);
+        buffer.putLong("self_ticks_over_budget", overBudget.getAndSet(0L));
+
+        JsonObject byFeature = new JsonObject();
+        for (Feature feature : FEATURES) {
+            byFeature.addProperty(feature.key, intervalNanos.getAndSet(feature.ordinal(), 0L) / 1_000_000.0);
+        }
+        buffer.putJson("self_ms_by_feature", byFeature);
+    }
+}
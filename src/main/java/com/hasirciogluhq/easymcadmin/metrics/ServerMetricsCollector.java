@@ -1,114 +1,554 @@
 package com.hasirciogluhq.easymcadmin.metrics;
 
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.rpc.RpcDeadline;
+import com.hasirciogluhq.easymcadmin.rpc.RpcMetrics;
+import com.hasirciogluhq.easymcadmin.scheduler.MainThreadQueue;
 import com.sun.management.OperatingSystemMXBean;
 import org.bukkit.Bukkit;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.management.ManagementFactory;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Collects server metrics including player info, memory, CPU, and TPS
+ * Metrics come from registered MetricSources. Sources are resolved once at
+ * enable; static sources are collected once per session (server_info),
+ * dynamic sources into a reused buffer for every server_metrics packet.
+ *
+ * Dynamic collection has two phases: collectMainThread() runs the few sources
+ * that need the main thread into a small snapshot, then collectDynamic() runs
+ * everything else off the main thread. The caller must not start a new
+ * collection before the previous one has been consumed.
+ *
+ * While the metrics batch is on, the per-second scalars (TPS, CPU, memory,
+ * players, queue depth, GC pause time) are only sent in the batch, and the
+ * large tables (collectStructure) only in some packets.
  */
 public class ServerMetricsCollector {
 
+    private final EasyMcAdmin plugin;
+    private final List<MetricSource> staticSources = new ArrayList<>();
+    private final List<MetricSource> mainThreadSources = new ArrayList<>();
+    private final List<MetricSource> dynamicSources = new ArrayList<>();
+    private final MetricBuffer mainThreadBuffer = new MetricBuffer(16);
+    private final MetricBuffer dynamicBuffer = new MetricBuffer();
+    private final MetricBuffer mainThreadSampleBuffer = new MetricBuffer(8);
+    private final MetricBuffer sampleBuffer = new MetricBuffer(32);
+    private final LatencyHistogram mainThreadMicros = new LatencyHistogram();
+    private final boolean legacyFields;
+
     /**
-     * Collect all server metrics
-     * 
-     * @return Map containing all collected metrics
-     */
-    public static Map<String, Object> collect() {
-        Map<String, Object> data = new HashMap<>();
-
-        // Player info - only count, not list
-        int online = Bukkit.getOnlinePlayers().size();
-        int max = Bukkit.getMaxPlayers();
-
-        // Memory info
-        long maxMemory = Runtime.getRuntime().maxMemory();
-        long totalMemory = Runtime.getRuntime().totalMemory();
-        long freeMemory = Runtime.getRuntime().freeMemory();
-        long usedMemory = totalMemory - freeMemory;
-        
-        // Memory metrics with total, used, and percentage
-        long memoryTotalMB = maxMemory / 1024 / 1024;
-        long memoryUsedMB = usedMemory / 1024 / 1024;
-        double memoryUsedPercentage = maxMemory > 0 ? (usedMemory * 100.0 / maxMemory) : 0.0;
-
-        // CPU info
-        double cpuLoad = 0.0;
+     * Create a collector with the built-in sources registered
+     *
+     * @param plugin       Plugin instance
+     * @param legacyFields Also send the deprecated duplicate fields and the
+     *                     static info with every metrics packet
+     */
+    public ServerMetricsCollector(EasyMcAdmin plugin, boolean legacyFields) {
+        this.plugin = plugin;
+        this.legacyFields = legacyFields;
+
+        register(new ServerInfoSource());
+        register(new PlayerSource());
+        register(new MemorySource());
+        register(new CpuSource());
+        register(new TpsSource());
+        register(new RpcSource());
+        register(new ConsoleSource());
+        register(new MainQueueSource());
+    }
+
+    /**
+     * Resolve and register a metric source
+     * Must be called on the main thread (sources may read Bukkit state).
+     *
+     * @param source Metric source
+     */
+    public void register(MetricSource source) {
+        boolean available;
         try {
-            OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-            cpuLoad = osBean.getProcessCpuLoad(); // 0-1 arası
-            if (cpuLoad < 0) {
-                cpuLoad = 0.0; // Negative values mean unavailable
+            available = source.resolve();
+        } catch (Exception e) {
+            available = false;
+        }
+        if (!available) {
+            plugin.getLogger().info("Metric source unavailable: " + source.getName());
+            return;
+        }
+        if (source.getKind() == MetricSource.Kind.STATIC) {
+            staticSources.add(source);
+        } else if (source.isMainThread()) {
+            mainThreadSources.add(source);
+        } else {
+            dynamicSources.add(source);
+        }
+    }
+
+    /**
+     * Set whether the metrics batch carries the per-second scalars
+     * collect() leaves them out of server_metrics while it does.
+     *
+     * @param batchSampled true if the batch is sent
+     */
+    public void setBatchSampled(boolean batchSampled) {
+        mainThreadBuffer.setBatchSampled(batchSampled);
+        dynamicBuffer.setBatchSampled(batchSampled);
+    }
+
+    /**
+     * Collect static server info
+     *
+     * @return New buffer with the static values
+     */
+    public MetricBuffer collectStatic() {
+        MetricBuffer buffer = new MetricBuffer(16);
+        for (MetricSource source : staticSources) {
+            collect(source, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Collect the main-thread metrics (phase 1, main thread only)
+     * The returned buffer is reused by the next call.
+     *
+     * @param withStructure Also collect the large tables
+     * @return Buffer with the main-thread values
+     */
+    public MetricBuffer collectMainThread(boolean withStructure) {
+        long start = System.nanoTime();
+        MetricBuffer buffer = mainThreadBuffer;
+        buffer.clear();
+        for (MetricSource source : mainThreadSources) {
+            collect(source, buffer);
+            if (withStructure) {
+                collectStructure(source, buffer);
+            }
+        }
+        mainThreadMicros.record((System.nanoTime() - start) / 1000);
+        return buffer;
+    }
+
+    /**
+     * Collect all other dynamic metrics (phase 2, any thread)
+     * The returned buffer is reused by the next call, so it must be consumed
+     * (serialized) before collecting again.
+     *
+     * @param mainThreadSnapshot Buffer returned by collectMainThread()
+     * @param withStructure      Also collect the large tables
+     * @return Buffer with the current values
+     */
+    public MetricBuffer collectDynamic(MetricBuffer mainThreadSnapshot, boolean withStructure) {
+        MetricBuffer buffer = dynamicBuffer;
+        buffer.clear();
+        buffer.putAll(mainThreadSnapshot);
+        for (MetricSource source : dynamicSources) {
+            collect(source, buffer);
+            if (withStructure) {
+                collectStructure(source, buffer);
             }
+        }
+        if (legacyFields) {
+            for (MetricSource source : staticSources) {
+                collect(source, buffer);
+            }
+        }
+        // Main-thread cost of collecting, since the previous packet
+        LatencyHistogram collectMicros = mainThreadMicros.snapshotAndReset();
+        buffer.putLong("metrics_main_thread_us", collectMicros.getMax());
+        buffer.putLong("timestamp", System.currentTimeMillis());
+        return buffer;
+    }
+
+    /**
+     * Sample the main-thread scalars for the metrics batch (phase 1, main thread only)
+     * The returned buffer is reused by the next call.
+     *
+     * @return Buffer with the main-thread samples
+     */
+    public MetricBuffer sampleMainThread() {
+        MetricBuffer buffer = mainThreadSampleBuffer;
+        buffer.clear();
+        for (MetricSource source : mainThreadSources) {
+            sample(source, buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Sample all other scalars for the metrics batch (phase 2, any thread)
+     * The returned buffer is reused by the next call.
+     *
+     * @param mainThreadSnapshot Buffer returned by sampleMainThread()
+     * @return Buffer with one row of samples
+     */
+    public MetricBuffer sampleDynamic(MetricBuffer mainThreadSnapshot) {
+        MetricBuffer buffer = sampleBuffer;
+        buffer.clear();
+        buffer.putAll(mainThreadSnapshot);
+        for (MetricSource source : dynamicSources) {
+            sample(source, buffer);
+        }
+        return buffer;
+    }
+
+    private void sample(MetricSource source, MetricBuffer buffer) {
+        try {
+            source.sample(buffer);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Metric source " + source.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void collect(MetricSource source, MetricBuffer buffer) {
+        try {
+            source.collect(buffer);
         } catch (Exception e) {
-            // CPU metrics not available
-            cpuLoad = 0.0;
-        }
-        
-        // CPU metrics with total (100%), used, and percentage
-        double cpuTotal = 100.0; // CPU is always 100% max
-        double cpuUsed = cpuLoad * 100.0; // Convert to percentage
-        double cpuUsedPercentage = cpuLoad * 100.0; // Same as used for CPU
-
-        // TPS (Paper/Spigot) - use reflection since method may not exist in all
-        // implementations
-        double tps1m = -1.0;
+            plugin.getLogger().warning("Metric source " + source.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void collectStructure(MetricSource source, MetricBuffer buffer) {
         try {
-            java.lang.reflect.Method getTPSMethod = Bukkit.getServer().getClass().getMethod("getTPS");
-            Object tpsObj = getTPSMethod.invoke(Bukkit.getServer());
-            if (tpsObj instanceof double[]) {
-                double[] tps = (double[]) tpsObj;
-                if (tps != null && tps.length > 0) {
-                    tps1m = tps[0];
+            source.collectStructure(buffer);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Metric source " + source.getName() + " failed: " + e.getMessage());
+        }
+    }
+
+    // ============================================================================
+    // BUILT-IN SOURCES
+    // ============================================================================
+
+    /**
+     * Server name and versions, read once
+     */
+    private static class ServerInfoSource implements MetricSource {
+        private String serverName;
+        private String bukkitVersion;
+        private String minecraftVersion;
+
+        @Override
+        public String getName() {
+            return "server_info";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.STATIC;
+        }
+
+        @Override
+        public boolean resolve() {
+            serverName = Bukkit.getServer().getName(); // Paper, CraftBukkit, etc.
+            bukkitVersion = Bukkit.getBukkitVersion(); // 1.21.1-R0.1-SNAPSHOT
+            minecraftVersion = getCleanMinecraftVersion(); // 1.21.1
+            return true;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            buffer.putString("serverName", serverName);
+            buffer.putString("minecraftVersion", minecraftVersion);
+            buffer.putString("bukkitVersion", bukkitVersion);
+        }
+    }
+
+    /**
+     * Player counts - only count, not list
+     */
+    private static class PlayerSource implements MetricSource {
+        @Override
+        public String getName() {
+            return "players";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public boolean isMainThread() {
+            return true;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            if (!buffer.isBatchSampled()) {
+                buffer.putLong("onlinePlayers", Bukkit.getOnlinePlayers().size());
+            }
+            buffer.putLong("maxPlayers", Bukkit.getMaxPlayers());
+        }
+
+        @Override
+        public void sample(MetricBuffer buffer) {
+            buffer.putLong("onlinePlayers", Bukkit.getOnlinePlayers().size());
+        }
+    }
+
+    /**
+     * Heap usage with total, used, and percentage
+     */
+    private class MemorySource implements MetricSource {
+        private final Runtime runtime = Runtime.getRuntime();
+
+        @Override
+        public String getName() {
+            return "memory";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            long maxMemory = runtime.maxMemory();
+            long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+            long memoryTotalMB = maxMemory / 1024 / 1024;
+            long memoryUsedMB = usedMemory / 1024 / 1024;
+
+            buffer.putLong("memory_total_mb", memoryTotalMB);
+            if (!buffer.isBatchSampled()) {
+                buffer.putLong("memory_used_mb", memoryUsedMB);
+                buffer.putDouble("memory_used_percentage", maxMemory > 0 ? (usedMemory * 100.0 / maxMemory) : 0.0);
+            }
+
+            if (legacyFields) {
+                buffer.putLong("memoryUsedMB", memoryUsedMB);
+                buffer.putLong("memoryMaxMB", memoryTotalMB);
+            }
+        }
+
+        @Override
+        public void sample(MetricBuffer buffer) {
+            buffer.putLong("memory_used_mb", (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024);
+        }
+    }
+
+    /**
+     * Process CPU load with total (100%), used, and percentage
+     */
+    private class CpuSource implements MetricSource {
+        private OperatingSystemMXBean osBean;
+
+        @Override
+        public String getName() {
+            return "cpu";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public boolean resolve() {
+            try {
+                osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            } catch (ClassCastException e) {
+                // CPU metrics not available; reported as 0
+                osBean = null;
+            }
+            return true;
+        }
+
+        private double cpuUsed() {
+            double cpuLoad = osBean != null ? osBean.getProcessCpuLoad() : 0.0; // 0-1
+            if (cpuLoad < 0) {
+                cpuLoad = 0.0; // Negative values mean unavailable
+            }
+            return cpuLoad * 100.0;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            double cpuUsed = cpuUsed();
+
+            if (!buffer.isBatchSampled()) {
+                buffer.putDouble("cpu_total", 100.0);
+                buffer.putDouble("cpu_used", cpuUsed);
+                buffer.putDouble("cpu_used_percentage", cpuUsed);
+            }
+
+            if (legacyFields) {
+                buffer.putDouble("cpuUsage", cpuUsed);
+            }
+        }
+
+        @Override
+        public void sample(MetricBuffer buffer) {
+            buffer.putDouble("cpu_used_percentage", cpuUsed());
+        }
+    }
+
+    /**
+     * TPS with total (20), used, and percentage
+     * getTPS() is Paper/Spigot only, so it is looked up once as a method handle.
+     */
+    private class TpsSource implements MetricSource {
+        private MethodHandle getTps;
+
+        @Override
+        public String getName() {
+            return "tps";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public boolean resolve() {
+            try {
+                getTps = MethodHandles.publicLookup()
+                        .findVirtual(Bukkit.getServer().getClass(), "getTPS", MethodType.methodType(double[].class))
+                        .bindTo(Bukkit.getServer());
+            } catch (Exception e) {
+                // TPS not available; reported as 0
+                getTps = null;
+            }
+            return true;
+        }
+
+        private double tps1m() {
+            if (getTps != null) {
+                try {
+                    double[] tps = (double[]) getTps.invokeExact();
+                    if (tps != null && tps.length > 0) {
+                        return tps[0];
+                    }
+                } catch (Throwable e) {
+                    return -1.0;
                 }
             }
-        } catch (Exception e) {
-            // TPS not available (not Paper/Spigot or method doesn't exist)
-            tps1m = -1.0;
-        }
-        
-        // TPS metrics with total (20), used, and percentage
-        double tpsTotal = 20.0; // TPS is always 20 max
-        double tpsUsed = tps1m >= 0 ? tps1m : 0.0;
-        double tpsUsedPercentage = tps1m >= 0 ? (tps1m * 100.0 / 20.0) : 0.0;
-
-        // Version information
-        String serverName = Bukkit.getServer().getName(); // Paper, CraftBukkit, etc.
-        String bukkitVersion = Bukkit.getBukkitVersion(); // 1.21.1-R0.1-SNAPSHOT
-        String minecraftVersion = getCleanMinecraftVersion(); // 1.21.1
-
-        data.put("onlinePlayers", online);
-        data.put("maxPlayers", max);
-        
-        // Memory metrics (detailed)
-        data.put("memory_total_mb", memoryTotalMB);
-        data.put("memory_used_mb", memoryUsedMB);
-        data.put("memory_used_percentage", memoryUsedPercentage);
-        
-        // CPU metrics (detailed)
-        data.put("cpu_total", cpuTotal);
-        data.put("cpu_used", cpuUsed);
-        data.put("cpu_used_percentage", cpuUsedPercentage);
-        
-        // TPS metrics (detailed)
-        data.put("tps_total", tpsTotal);
-        data.put("tps_used", tpsUsed);
-        data.put("tps_used_percentage", tpsUsedPercentage);
-        
-        // Legacy fields for backward compatibility (deprecated)
-        data.put("memoryUsedMB", memoryUsedMB);
-        data.put("memoryMaxMB", memoryTotalMB);
-        data.put("cpuUsage", cpuUsed);
-        data.put("tps", tpsUsed);
-        
-        data.put("serverName", serverName);
-        data.put("minecraftVersion", minecraftVersion);
-        data.put("bukkitVersion", bukkitVersion);
-        data.put("timestamp", System.currentTimeMillis());
-
-        return data;
+            return -1.0;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            double tps1m = tps1m();
+            double tpsUsed = tps1m >= 0 ? tps1m : 0.0;
+
+            if (!buffer.isBatchSampled()) {
+                buffer.putDouble("tps_total", 20.0);
+                buffer.putDouble("tps_used", tpsUsed);
+                buffer.putDouble("tps_used_percentage", tps1m >= 0 ? (tps1m * 100.0 / 20.0) : 0.0);
+            }
+
+            if (legacyFields) {
+                buffer.putDouble("tps", tpsUsed);
+            }
+        }
+
+        @Override
+        public void sample(MetricBuffer buffer) {
+            buffer.putDouble("tps_used", Math.max(0.0, tps1m()));
+        }
+    }
+
+    /**
+     * RPC admission, per-action latency and response cache
+     */
+    private class RpcSource implements MetricSource {
+        @Override
+        public String getName() {
+            return "rpc";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            buffer.putLong("rpc_deadline_dropped", RpcDeadline.getDroppedCount());
+            if (plugin.getRpcResponseCache() != null) {
+                buffer.putJson("rpc_response_cache", plugin.getRpcResponseCache().toJson());
+            }
+        }
+
+        /**
+         * Per-action tables; the histograms are cumulative, so nothing is lost
+         * between structure packets
+         */
+        @Override
+        public void collectStructure(MetricBuffer buffer) {
+            if (plugin.getRpcAdmissionController() != null) {
+                buffer.putJson("rpc_admission", plugin.getRpcAdmissionController().toJson());
+            }
+            buffer.putJson("rpc_latency", RpcMetrics.toJson());
+        }
+    }
+
+    /**
+     * Console pipeline counters
+     */
+    private class ConsoleSource implements MetricSource {
+        @Override
+        public String getName() {
+            return "console";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            if (plugin.getConsolePipeline() != null) {
+                buffer.putJson("console_pipeline", plugin.getConsolePipeline().toJson());
+            }
+        }
+    }
+
+    /**
+     * Main-thread work queue
+     */
+    private class MainQueueSource implements MetricSource {
+        @Override
+        public String getName() {
+            return "main_queue";
+        }
+
+        @Override
+        public Kind getKind() {
+            return Kind.DYNAMIC;
+        }
+
+        @Override
+        public void collect(MetricBuffer buffer) {
+            MainThreadQueue queue = plugin.getMainThreadQueue();
+            if (queue == null) {
+                return;
+            }
+            if (!buffer.isBatchSampled()) {
+                buffer.putLong("main_queue_depth", queue.getDepth());
+            }
+            buffer.putLong("main_queue_last_tick_us", queue.getLastTickNanos() / 1000);
+            buffer.putLong("main_queue_max_tick_us", queue.getMaxTickNanosAndReset() / 1000);
+            buffer.putLong("main_queue_budget_us", queue.getBudgetNanos() / 1000);
+            buffer.putLong("main_queue_executed", queue.getExecutedCount());
+            buffer.putLong("main_queue_carried_over_ticks", queue.getCarriedOverTicks());
+        }
+
+        @Override
+        public void sample(MetricBuffer buffer) {
+            MainThreadQueue queue = plugin.getMainThreadQueue();
+            if (queue != null) {
+                buffer.putLong("main_queue_depth", queue.getDepth());
+            }
+        }
     }
 
     /**
@@ -0,0 +1,212 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tick Monitor - records every server tick's duration into a histogram
+ * On Paper, ServerTickEndEvent reports the real tick duration (MSPT) and is
+ * used through reflection, since the plugin compiles against the Spigot API.
+ * Elsewhere a 1-tick repeating task records the time between consecutive
+ * ticks; that interval includes the idle sleep, so it sits at ~50 ms on a
+ * healthy server and only shows spikes, not headroom.
+ *
+ * Recording is one histogram update per tick. Each metrics packet takes the
+ * ticks recorded since the previous one.
+ */
+public class TickMonitor implements Listener, MetricSource {
+    public static final String SOURCE_PAPER = "paper";
+    public static final String SOURCE_INTERVAL = "interval";
+
+    private static final long TICK_BUDGET_MICROS = 50_000L;
+    // Interval mode measures the whole tick period, allow for scheduler jitter
+    private static final long INTERVAL_SLACK_MICROS = 5_000L;
+
+    private final EasyMcAdmin plugin;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicLong overBudget = new AtomicLong();
+
+    // Every tick's duration for the metrics batch, if enabled
+    private static final int MAX_SERIES_TICKS = 1 << 14;
+    private volatile boolean recordSeries = false;
+    private long[] series = new long[256];
+    private int seriesSize = 0;
+    private final Object seriesLock = new Object();
+    private String source;
+    private BukkitTask task;
+    private long lastTickNanos = 0L;
+    // When the last tick was recorded, read by the lag watchdog
+    private volatile long lastRecordedNanos = 0L;
+
+    public TickMonitor(EasyMcAdmin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start recording ticks
+     */
+    public void start() {
+        if (source != null) {
+            return;
+        }
+        if (registerPaperListener()) {
+            source = SOURCE_PAPER;
+            return;
+        }
+
+        source = SOURCE_INTERVAL;
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            long now = System.nanoTime();
+            if (lastTickNanos != 0L) {
+                record(TimeUnit.NANOSECONDS.toMicros(now - lastTickNanos), INTERVAL_SLACK_MICROS);
+            }
+            lastTickNanos = now;
+        }, 1L, 1L);
+    }
+
+    /**
+     * Stop recording ticks
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        HandlerList.unregisterAll(this);
+        source = null;
+        lastTickNanos = 0L;
+    }
+
+    @Override
+    public String getName() {
+        return "tick";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    /**
+     * Add tick metrics to a metrics packet and start a new interval
+     * Keys: mspt_source, tick_count, mspt_p50, mspt_p95, mspt_p99, mspt_max
+     * (milliseconds) and ticks_over_50ms.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        LatencyHistogram snapshot = histogram.snapshotAndReset();
+
+        buffer.putString("mspt_source", source != null ? source : "none");
+        buffer.putLong("tick_count", snapshot.getCount());
+        buffer.putDouble("mspt_p50", toMillis(snapshot.getValueAtPercentile(50.0)));
+        buffer.putDouble("mspt_p95", toMillis(snapshot.getValueAtPercentile(95.0)));
+        buffer.putDouble("mspt_p99", toMillis(snapshot.getValueAtPercentile(99.0)));
+        buffer.putDouble("mspt_max", toMillis(snapshot.getMax()));
+        buffer.putLong("ticks_over_50ms", overBudget.getAndSet(0L));
+    }
+
+    /**
+     * Keep every tick's duration for the metrics batch
+     *
+     * @param enabled Whether to record the series
+     */
+    public void setRecordSeries(boolean enabled) {
+        recordSeries = enabled;
+        drainSeries();
+    }
+
+    /**
+     * Get the tick durations recorded since the previous call
+     * At most 2^14 ticks are kept between calls; later ticks are not recorded.
+     *
+     * @return Tick durations in microseconds, oldest first
+     */
+    public long[] drainSeries() {
+        synchronized (seriesLock) {
+            long[] ticks = Arrays.copyOf(series, seriesSize);
+            seriesSize = 0;
+            return ticks;
+        }
+    }
+
+    /**
+     * Get the source of the tick durations
+     *
+     * @return SOURCE_PAPER, SOURCE_INTERVAL or null if not started
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Get when the last tick was recorded
+     * Paper: end of the last tick. Elsewhere: start of the last tick.
+     *
+     * @return System.nanoTime() of the last tick, 0 if none yet
+     */
+    public long getLastTickNanos() {
+        return lastRecordedNanos;
+    }
+
+    private void record(long micros, long slackMicros) {
+        lastRecordedNanos = System.nanoTime();
+        histogram.record(micros);
+        if (micros > TICK_BUDGET_MICROS + slackMicros) {
+            overBudget.incrementAndGet();
+        }
+        if (recordSeries) {
+            synchronized (seriesLock) {
+                if (seriesSize == series.length && series.length < MAX_SERIES_TICKS) {
+                    series = Arrays.copyOf(series, series.length * 2);
+                }
+                if (seriesSize < series.length) {
+                    series[seriesSize++] = micros;
+                }
+            }
+        }
+    }
+
+    /**
+     * Listen to Paper's ServerTickEndEvent if the server has it
+     *
+     * @return true if registered
+     */
+    @SuppressWarnings("unchecked")
+    private boolean registerPaperListener() {
+        try {
+            Class<? extends Event> eventClass = (Class<? extends Event>) Class
+                    .forName("com.destroystokyo.paper.event.server.ServerTickEndEvent");
+            Method getTickDuration = eventClass.getMethod("getTickDuration");
+
+            plugin.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR,
+                    (listener, event) -> {
+                        if (!eventClass.isInstance(event)) {
+                            return;
+                        }
+                        try {
+                            double millis = (double) getTickDuration.invoke(event);
+                            record((long) (millis * 1000.0), 0L);
+                        } catch (Exception ignored) {
+                        }
+                    }, plugin);
+            return true;
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,329 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * World Census - per-world loaded chunks, entities by type and tile entities
+ * Walking every world's entities in one tick would itself be a lag spike, so
+ * the census walks the loaded chunks a slice at a time: every tick it counts
+ * chunks until the per-tick time cap is used up and carries on next tick.
+ *
+ * Counts go into a back buffer; when the last world is done the buffers are
+ * swapped, so metrics always see one complete cycle, never a partial one.
+ * The next cycle starts interval-seconds after the previous one finished.
+ * Counting runs on the main thread; a completed cycle is published as an
+ * immutable summary, so collect() is safe on any thread.
+ */
+public class WorldCensus implements MetricSource {
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+    // Chunks counted between clock reads
+    private static final int CLOCK_CHECK_INTERVAL = 8;
+
+    private final EasyMcAdmin plugin;
+    private final long maxTickNanos;
+    private final long intervalMillis;
+    private BukkitTask task;
+
+    private Counts front = new Counts();
+    private Counts back = new Counts();
+    private volatile Published published;
+
+    // Position of the running cycle; worlds == null between cycles
+    private List<World> worlds;
+    private int worldIndex;
+    private Chunk[] chunks;
+    private int chunkIndex;
+    private WorldCounts current;
+    private long nextCycleAtMillis = 0L;
+
+    /**
+     * Counts for all worlds, one complete cycle
+     */
+    private static final class Counts {
+        final Map<String, WorldCounts> worlds = new LinkedHashMap<>();
+        long completedAtMillis;
+        long startedAtMillis;
+        int ticks;
+        long busyNanos;
+
+        WorldCounts world(String name) {
+            WorldCounts counts = worlds.computeIfAbsent(name, n -> new WorldCounts());
+            counts.seen = true;
+            return counts;
+        }
+
+        void reset() {
+            for (WorldCounts counts : worlds.values()) {
+                counts.reset();
+            }
+            ticks = 0;
+            busyNanos = 0L;
+        }
+    }
+
+    /**
+     * Summary of the last complete cycle, never modified after publishing
+     */
+    private static final class Published {
+        final long chunks;
+        final long entities;
+        final long tileEntities;
+        final long completedAtMillis;
+        final JsonObject json;
+
+        Published(Counts counts) {
+            long chunkTotal = 0L;
+            long entityTotal = 0L;
+            long tileEntityTotal = 0L;
+            for (WorldCounts world : counts.worlds.values()) {
+                chunkTotal += world.chunks;
+                entityTotal += world.entities;
+                tileEntityTotal += world.tileEntities;
+            }
+            this.chunks = chunkTotal;
+            this.entities = entityTotal;
+            this.tileEntities = tileEntityTotal;
+            this.completedAtMillis = counts.completedAtMillis;
+            this.json = toJson(counts);
+        }
+    }
+
+    private static final class WorldCounts {
+        final int[] entitiesByType = new int[ENTITY_TYPES.length];
+        int chunks;
+        int entities;
+        int tileEntities;
+        boolean seen;
+
+        void reset() {
+            Arrays.fill(entitiesByType, 0);
+            chunks = 0;
+            entities = 0;
+            tileEntities = 0;
+            seen = false;
+        }
+    }
+
+    /**
+     * Create a new census
+     *
+     * @param plugin          Plugin instance
+     * @param maxTickMs       Time cap per tick in milliseconds
+     * @param intervalSeconds Pause between the end of a cycle and the next start
+     */
+    public WorldCensus(EasyMcAdmin plugin, double maxTickMs, long intervalSeconds) {
+        this.plugin = plugin;
+        this.maxTickNanos = (long) (Math.max(0.05, maxTickMs) * 1_000_000L);
+        this.intervalMillis = Math.max(0L, intervalSeconds) * 1000L;
+    }
+
+    @Override
+    public String getName() {
+        return "world_census";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    /**
+     * Start counting, one slice per tick
+     */
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            OverheadMonitor overhead = plugin.getOverheadMonitor();
+            long start = overhead.begin();
+            try {
+                tick();
+            } finally {
+                overhead.end(OverheadMonitor.Feature.METRICS, start);
+            }
+        }, 1L, 1L);
+    }
+
+    /**
+     * Stop counting
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        worlds = null;
+        chunks = null;
+        current = null;
+    }
+
+    private void tick() {
+        long startNanos = System.nanoTime();
+        if (worlds == null) {
+            if (System.currentTimeMillis() < nextCycleAtMillis) {
+                return;
+            }
+            beginCycle();
+        }
+
+        long deadline = startNanos + maxTickNanos;
+        back.ticks++;
+        try {
+            int counted = 0;
+            while (true) {
+                if (chunks == null) {
+                    if (worldIndex >= worlds.size()) {
+                        back.busyNanos += System.nanoTime() - startNanos;
+                        publish();
+                        return;
+                    }
+                    World world = worlds.get(worldIndex);
+                    if (Bukkit.getWorld(world.getUID()) == null) {
+                        // Unloaded since the cycle started
+                        worldIndex++;
+                        continue;
+                    }
+                    current = back.world(world.getName());
+                    chunks = world.getLoadedChunks();
+                    chunkIndex = 0;
+                    current.chunks = chunks.length;
+                }
+
+                while (chunkIndex < chunks.length) {
+                    Chunk chunk = chunks[chunkIndex++];
+                    // getEntities() on an unloaded chunk would load it again
+                    if (chunk.isLoaded()) {
+                        count(chunk, current);
+                    }
+                    if (++counted % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                        return;
+                    }
+                }
+
+                chunks = null;
+                current = null;
+                worldIndex++;
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+            }
+        } finally {
+            if (worlds != null) {
+                back.busyNanos += System.nanoTime() - startNanos;
+            }
+        }
+    }
+
+    private void beginCycle() {
+        back.reset();
+        back.startedAtMillis = System.currentTimeMillis();
+        worlds = new ArrayList<>(Bukkit.getWorlds());
+        worldIndex = 0;
+        chunks = null;
+    }
+
+    private static void count(Chunk chunk, WorldCounts counts) {
+        Entity[] entities = chunk.getEntities();
+        for (Entity entity : entities) {
+            counts.entitiesByType[entity.getType().ordinal()]++;
+        }
+        counts.entities += entities.length;
+        counts.tileEntities += chunk.getTileEntities().length;
+    }
+
+    private void publish() {
+        // Worlds that were unloaded have no counts this cycle
+        Iterator<WorldCounts> iterator = back.worlds.values().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().seen) {
+                iterator.remove();
+            }
+        }
+        back.completedAtMillis = System.currentTimeMillis();
+
+        Counts completed = back;
+        back = front;
+        front = completed;
+        published = new Published(completed);
+
+        worlds = null;
+        nextCycleAtMillis = completed.completedAtMillis + intervalMillis;
+    }
+
+    /**
+     * Add the totals of the last complete census to a metrics packet
+     * Keys: census_chunks, census_entities, census_tile_entities, census_age_ms.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        Published census = published;
+        if (census == null) {
+            return; // First cycle not finished yet
+        }
+
+        buffer.putLong("census_chunks", census.chunks);
+        buffer.putLong("census_entities", census.entities);
+        buffer.putLong("census_tile_entities", census.tileEntities);
+        buffer.putLong("census_age_ms", System.currentTimeMillis() - census.completedAtMillis);
+    }
+
+    /**
+     * Add the per-world table of the last complete census
+     * Key: world_census (per world, with entities_by_type).
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collectStructure(MetricBuffer buffer) {
+        Published census = published;
+        if (census != null) {
+            // The same snapshot is reported until the next cycle completes
+            buffer.putJson("world_census", census.json);
+        }
+    }
+
+    private static JsonObject toJson(Counts counts) {
+        JsonObject worlds = new JsonObject();
+        for (Map.Entry<String, WorldCounts> entry : counts.worlds.entrySet()) {
+            WorldCounts world = entry.getValue();
+            JsonObject byType = new JsonObject();
+            for (int i = 0; i < ENTITY_TYPES.length; i++) {
+                if (world.entitiesByType[i] > 0) {
+                    byType.addProperty(ENTITY_TYPES[i].name().toLowerCase(), world.entitiesByType[i]);
+                }
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("chunks", world.chunks);
+            json.addProperty("entities", world.entities);
+            json.addProperty("tile_entities", world.tileEntities);
+            json.add("entities_by_type", byType);
+            worlds.add(entry.getKey(), json);
+        }
+
+        JsonObject json = new JsonObject();
+        json.add("worlds", worlds);
+        json.addProperty("completed_at", counts.completedAtMillis);
+        json.addProperty("cycle_ms", counts.completedAtMillis - counts.startedAtMillis);
+        json.addProperty("cycle_ticks", counts.ticks);
+        json.addProperty("cycle_busy_ms", counts.busyNanos / 1_000_000.0);
+        return json;
+    }
+}
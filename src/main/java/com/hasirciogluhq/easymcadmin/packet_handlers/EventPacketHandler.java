@@ -4,6 +4,7 @@ import java.util.UUID;
 
 
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.console.ConsoleClassifier;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.packets.economy.EconomyConfigPacket;
 import com.hasirciogluhq.easymcadmin.transport.TransportManager;
@@ -41,6 +42,43 @@ public class EventPacketHandler {
                 handleEconomyConfig(packet);
                 break;
 
+            case "rpc.stream.ack":
+                // Backend grants more credits to a streaming RPC response
+                EasyMcAdmin.getInstance().getRpcStreamManager().handleAck(packet);
+                break;
+
+            case "rpc.stream.cancel":
+                // Backend no longer wants the rest of a streaming RPC response
+                EasyMcAdmin.getInstance().getRpcStreamManager().handleCancel(packet);
+                break;
+
+            case "console.subscribe":
+                // Backend registers (or updates) a live console filter
+                if (EasyMcAdmin.getInstance().getConsolePipeline() != null) {
+                    String error = EasyMcAdmin.getInstance().getConsolePipeline().getSubscriptions()
+                            .subscribe(packet.getPayload());
+                    if (error != null) {
+                        EasyMcAdmin.getInstance().getLogger().warning("Invalid console subscription: " + error);
+                    }
+                }
+                break;
+
+            case "console.unsubscribe":
+                if (EasyMcAdmin.getInstance().getConsolePipeline() != null
+                        && packet.getPayload().has("subscription_id")) {
+                    EasyMcAdmin.getInstance().getConsolePipeline().getSubscriptions()
+                            .unsubscribe(packet.getPayload().get("subscription_id").getAsString());
+                }
+                break;
+
+            case "console.classifier.update":
+                // Backend pushes new console line classification rules
+                if (EasyMcAdmin.getInstance().getConsolePipeline() != null) {
+                    EasyMcAdmin.getInstance().getConsolePipeline()
+                            .setClassifier(ConsoleClassifier.fromJson(packet.getPayload()));
+                }
+                break;
+
             default:
                 EasyMcAdmin.getInstance().getLogger().info("Unknown packet action: " + packet.getAction());
         }
@@ -1,142 +1,1005 @@
 package com.hasirciogluhq.easymcadmin.packet_handlers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
-import com.hasirciogluhq.easymcadmin.listeners.PlayerListListener;
+import com.hasirciogluhq.easymcadmin.console.ConsoleHistory;
+import com.hasirciogluhq.easymcadmin.console.ConsolePipeline;
+import com.hasirciogluhq.easymcadmin.jfr.JfrRecorder;
+import com.hasirciogluhq.easymcadmin.jfr.RpcEvent;
+import com.hasirciogluhq.easymcadmin.metrics.LagWatchdog;
+import com.hasirciogluhq.easymcadmin.metrics.MetricsHistory;
+import com.hasirciogluhq.easymcadmin.metrics.OverheadMonitor;
 import com.hasirciogluhq.easymcadmin.packets.GenericPacket;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.packets.PacketType;
 import com.hasirciogluhq.easymcadmin.packets.player.PlayerInventoryChangedPacket;
 import com.hasirciogluhq.easymcadmin.packets.rpc.RpcErrorPacket;
-import com.hasirciogluhq.easymcadmin.player.FakeOfflinePlayerManager;
+import com.hasirciogluhq.easymcadmin.player.PlayerDataSerializer;
 import com.hasirciogluhq.easymcadmin.player.serializers.InventorySerializer;
-import com.hasirciogluhq.easymcadmin.rpc.RpcStore;
+import com.hasirciogluhq.easymcadmin.profiler.ListenerProfiler;
+import com.hasirciogluhq.easymcadmin.profiler.SamplingProfiler;
+import com.hasirciogluhq.easymcadmin.rpc.RpcAdmissionController;
+import com.hasirciogluhq.easymcadmin.rpc.RpcDeadline;
+import com.hasirciogluhq.easymcadmin.rpc.RpcMetrics;
+import com.hasirciogluhq.easymcadmin.rpc.RpcRequestHandler;
+import com.hasirciogluhq.easymcadmin.rpc.RpcStream;
+import com.hasirciogluhq.easymcadmin.rpc.RpcStreamProducer;
+import com.hasirciogluhq.easymcadmin.scheduler.MainThreadQueue;
 import com.hasirciogluhq.easymcadmin.transport.TransportManager;
 
 public class RpcPacketHandler {
+    private static final String BATCH_ACTION = "rpc.batch";
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final int MAX_HISTORY_PAGE = 500;
+    private static final int MAX_PROFILE_PART = 5000;
+    private static final int MAX_JFR_PART = 1024 * 1024;
+    private static final int MAX_HISTORY_POINTS = 3600;
+    private static final int MAX_ROSTER_PART = 500;
+    private static final long MAIN_THREAD_WAIT_SECONDS = 30;
+    private static final long MAIN_THREAD_POLL_MILLIS = 250;
+
     private TransportManager transportManager;
+    private final Map<String, RpcRequestHandler> mainThreadHandlers = new HashMap<>();
+    private final Map<String, RpcRequestHandler> directHandlers = new HashMap<>();
+    private final Map<String, RpcRequestHandler> workerHandlers = new HashMap<>();
+    private final Map<String, RpcStreamProducer> streamHandlers = new HashMap<>();
 
     public RpcPacketHandler(TransportManager tm) {
         this.transportManager = tm;
+
+        // Handlers that touch the Bukkit API run on the main thread
+        mainThreadHandlers.put("server.execute_console_command", this::executeConsoleCommand);
+        mainThreadHandlers.put("player.inventory.request", this::requestPlayerInventory);
+        mainThreadHandlers.put("server.listener_timings.start", this::startListenerTimings);
+        mainThreadHandlers.put("server.listener_timings.stop", this::stopListenerTimings);
+
+        // Thread-safe handlers that never touch the Bukkit API run right away
+        directHandlers.put("console.history", this::consoleHistory);
+        directHandlers.put("server.profile.start", this::startProfile);
+        directHandlers.put("server.lag_spikes", this::recentLagSpikes);
+        directHandlers.put("server.listener_timings", this::listenerTimings);
+        directHandlers.put("server.jfr.status", this::jfrStatus);
+
+        // Thread-safe handlers that may block run on a worker, off the transport thread
+        workerHandlers.put("server.jfr.start", this::startJfr);
+
+        // Handlers with large results answer with a stream of parts
+        streamHandlers.put("player.roster", this::streamPlayerRoster);
+        streamHandlers.put("server.profile.stop", this::streamProfile);
+        streamHandlers.put("server.jfr.stop", this::streamJfr);
+        streamHandlers.put("metrics.history", this::streamMetricsHistory);
     }
 
     public void handleRpcRequest(Packet packet) {
+        // Drop requests the backend has already given up on before queueing any work
+        if (RpcDeadline.isExpired(packet)) {
+            RpcEvent event = RpcEvent.start(RpcEvent.INBOUND, modeOf(packet.getAction()), packet.getAction());
+            rejectExpired(packet);
+            event.outcome = "deadline_exceeded";
+            event.commit();
+            return;
+        }
+
+        if (BATCH_ACTION.equals(packet.getAction())) {
+            if (!answerFromCache(packet)) {
+                handleBatch(packet);
+            }
+            return;
+        }
+
+        RpcStreamProducer producer = streamHandlers.get(packet.getAction());
+        if (producer != null) {
+            openStream(packet, producer);
+            return;
+        }
+
+        RpcRequestHandler direct = directHandlers.get(packet.getAction());
+        if (direct != null) {
+            if (!answerFromCache(packet)) {
+                runDirect(packet, direct, "direct");
+            }
+            return;
+        }
+
+        RpcRequestHandler worker = workerHandlers.get(packet.getAction());
+        if (worker != null) {
+            if (!answerFromCache(packet)) {
+                EasyMcAdmin.getInstance().getRpcStreamManager().execute(() -> runDirect(packet, worker, "worker"));
+            }
+            return;
+        }
+
+        RpcRequestHandler handler = mainThreadHandlers.get(packet.getAction());
+        if (handler == null || answerFromCache(packet)) {
+            return;
+        }
+
+        runOnMainThread(packet, () -> execute(handler, packet));
+    }
+
+    /**
+     * Get where an action runs, for RpcEvent.mode
+     *
+     * @param action RPC action
+     * @return main, direct, worker or stream
+     */
+    private String modeOf(String action) {
+        if (streamHandlers.containsKey(action)) {
+            return "stream";
+        }
+        if (workerHandlers.containsKey(action)) {
+            return "worker";
+        }
+        return directHandlers.containsKey(action) ? "direct" : "main";
+    }
+
+    // ============================================================================
+    // MAIN THREAD HANDLERS
+    // ============================================================================
+
+    /**
+     * server.execute_console_command
+     */
+    private Packet executeConsoleCommand(Packet packet) {
+        if (!packet.getPayload().has("command")) {
+            return new RpcErrorPacket("missing command");
+        }
+        String command = packet.getPayload().get("command").getAsString();
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "console_command");
+
+        JsonObject responsePayload = new JsonObject();
+        try {
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+            responsePayload.addProperty("output", "Command executed: " + command);
+        } catch (Exception e) {
+            responsePayload.addProperty("error", "Failed to execute command: " + e.getMessage());
+        }
+
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, responsePayload);
+    }
+
+    /**
+     * player.inventory.request
+     */
+    private Packet requestPlayerInventory(Packet packet) {
+        if (!packet.getPayload().has("player_uuid")) {
+            return new RpcErrorPacket("missing player_uuid");
+        }
+        String playerUUIDStr = packet.getPayload().get("player_uuid").getAsString();
+        Bukkit.getLogger().log(Level.FINE, "player.inventory.request RPC Received for " + playerUUIDStr);
+
+        if (EasyMcAdmin.getInstance().getPlayerListListener() == null) {
+            return new RpcErrorPacket("internal error");
+        }
+
+        Player p = Bukkit.getPlayer(UUID.fromString(playerUUIDStr));
+        if (p == null || !p.isOnline()) {
+            return new RpcErrorPacket("player offline");
+        }
+
+        String inventoryHash = InventorySerializer.calculateInventoryHash(p.getInventory());
+        String enderChestHash = InventorySerializer.calculateEnderChestHash(p.getEnderChest());
+        JsonObject inventoryData = EasyMcAdmin.getInstance().getInventoryChangeListener()
+                .generatePlayerInventoryData(p, true);
+        return new PlayerInventoryChangedPacket(inventoryHash, enderChestHash, true, inventoryData);
+    }
+
+    /**
+     * server.listener_timings.start - wrap all event listeners and time them
+     * Payload: sample_every (optional, time one in N calls).
+     */
+    private Packet startListenerTimings(Packet packet) {
+        ListenerProfiler profiler = EasyMcAdmin.getInstance().getListenerProfiler();
+        int sampleEvery = packet.getPayload().has("sample_every")
+                ? Math.max(1, packet.getPayload().get("sample_every").getAsInt())
+                : 0;
+        int wrapped = profiler.enable(sampleEvery);
+
+        JsonObject responsePayload = new JsonObject();
+        responsePayload.addProperty("wrapped_listeners", wrapped);
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.listener_timings.start");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, responsePayload);
+    }
+
+    /**
+     * server.listener_timings.stop - restore the original listeners
+     * Returns the final tables, like server.listener_timings.
+     */
+    private Packet stopListenerTimings(Packet packet) {
+        ListenerProfiler profiler = EasyMcAdmin.getInstance().getListenerProfiler();
+        profiler.disable();
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.listener_timings.stop");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata,
+                profiler.toJson(listenerTimingsLimit(packet)));
+    }
+
+    // ============================================================================
+    // DIRECT HANDLERS
+    // ============================================================================
+
+    /**
+     * console.history - page through recent console records
+     * Payload: after (offset, returns older-to-newer records after it) or
+     * before (offset, returns the newest records before it), and limit. To
+     * resume the live stream, page with after until next_offset is reached,
+     * then drop live lines with an offset already seen.
+     */
+    private Packet consoleHistory(Packet packet) {
+        ConsolePipeline pipeline = EasyMcAdmin.getInstance().getConsolePipeline();
+        if (pipeline == null || pipeline.getHistory() == null) {
+            return new RpcErrorPacket("console history unavailable");
+        }
+
+        JsonObject request = packet.getPayload();
+        int limit = request.has("limit")
+                ? Math.max(1, Math.min(MAX_HISTORY_PAGE, request.get("limit").getAsInt()))
+                : 100;
+        Long before = request.has("before") ? request.get("before").getAsLong() : null;
+        long after = request.has("after") ? request.get("after").getAsLong() : -1L;
+
+        ConsoleHistory.Page page = pipeline.getHistory().read(after, before, limit);
+        JsonArray lines = new JsonArray(page.getRecords().size());
+        for (byte[] record : page.getRecords()) {
+            lines.add(JsonParser.parseString(new String(record, StandardCharsets.UTF_8)));
+        }
+
+        long endOffset = page.getStartOffset() + page.getRecords().size();
+        JsonObject responsePayload = new JsonObject();
+        responsePayload.add("lines", lines);
+        responsePayload.addProperty("first_offset", page.getFirstOffset());
+        responsePayload.addProperty("next_offset", page.getNextOffset());
+        responsePayload.addProperty("has_more", before != null
+                ? page.getStartOffset() > page.getFirstOffset()
+                : endOffset < page.getNextOffset());
+        // Records between the cursor and the oldest kept one were evicted
+        responsePayload.addProperty("truncated", before == null && after + 1 < page.getFirstOffset());
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "console.history");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, responsePayload);
+    }
+
+    /**
+     * server.profile.start - start sampling the main thread
+     * Payload: interval_ms, duration_seconds, max_depth (all optional). The
+     * result is collected with server.profile.stop.
+     */
+    private Packet startProfile(Packet packet) {
+        SamplingProfiler profiler = EasyMcAdmin.getInstance().getSamplingProfiler();
+        if (profiler == null) {
+            return new RpcErrorPacket("profiler disabled");
+        }
+
+        String error = profiler.start(packet.getPayload());
+        if (error != null) {
+            return new RpcErrorPacket(error);
+        }
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.profile.start");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata,
+                profiler.getSession().toJson());
+    }
+
+    /**
+     * server.listener_timings - top plugins and events by listener time
+     * Payload: limit (rows per table, default 20).
+     */
+    private Packet listenerTimings(Packet packet) {
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.listener_timings");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata,
+                EasyMcAdmin.getInstance().getListenerProfiler().toJson(listenerTimingsLimit(packet)));
+    }
+
+    private static int listenerTimingsLimit(Packet packet) {
+        return packet.getPayload().has("limit")
+                ? Math.max(1, Math.min(500, packet.getPayload().get("limit").getAsInt()))
+                : 20;
+    }
+
+    /**
+     * server.jfr.start - start a Flight Recorder recording
+     * Payload: profile, duration_seconds, max_size_mb (see JfrRecorder.start).
+     */
+    private Packet startJfr(Packet packet) {
+        JfrRecorder recorder = EasyMcAdmin.getInstance().getJfrRecorder();
+        if (recorder == null) {
+            return new RpcErrorPacket("jfr disabled");
+        }
+
+        String error = recorder.start(packet.getPayload());
+        if (error != null) {
+            return new RpcErrorPacket(error);
+        }
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.jfr.start");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, recorder.toJson());
+    }
+
+    /**
+     * server.jfr.status - state of the current recording
+     */
+    private Packet jfrStatus(Packet packet) {
+        JfrRecorder recorder = EasyMcAdmin.getInstance().getJfrRecorder();
+        if (recorder == null) {
+            return new RpcErrorPacket("jfr disabled");
+        }
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.jfr.status");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, recorder.toJson());
+    }
+
+    /**
+     * server.lag_spikes - the lag spikes kept by the watchdog, oldest first
+     */
+    private Packet recentLagSpikes(Packet packet) {
+        LagWatchdog watchdog = EasyMcAdmin.getInstance().getLagWatchdog();
+        if (watchdog == null) {
+            return new RpcErrorPacket("watchdog disabled");
+        }
+
+        JsonObject responsePayload = new JsonObject();
+        responsePayload.add("spikes", watchdog.getRecentSpikes());
+
+        JsonObject responseMetadata = new JsonObject();
+        responseMetadata.addProperty("action", "server.lag_spikes");
+        return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, responseMetadata, responsePayload);
+    }
+
+    // ============================================================================
+    // STREAM HANDLERS
+    // ============================================================================
+
+    /**
+     * server.profile.stop - stop the profiler and stream the collapsed stacks
+     * Each part has stacks[] of "frame;frame;frame count" lines (outermost
+     * frame first), chunk_size lines per part. The summary has the session
+     * stats, including the sampling overhead.
+     */
+    private JsonObject streamProfile(RpcStream stream) throws Exception {
+        SamplingProfiler profiler = EasyMcAdmin.getInstance().getSamplingProfiler();
+        SamplingProfiler.Session session = profiler != null ? profiler.stop() : null;
+        if (session == null) {
+            JsonObject error = new JsonObject();
+            error.addProperty("error", profiler == null ? "profiler disabled" : "profiler not running");
+            return error;
+        }
+
+        int chunkSize = stream.getRequest().getPayload().has("chunk_size")
+                ? Math.max(1, Math.min(MAX_PROFILE_PART, stream.getRequest().getPayload().get("chunk_size").getAsInt()))
+                : 500;
+
+        // Parts are written from inside the trie walk, so at most one part of
+        // lines is held at a time
+        JsonArray[] stacks = { new JsonArray() };
+        int[] total = { 0 };
+        try {
+            session.getTrie().forEachCollapsed((stack, samples) -> {
+                stacks[0].add(stack + " " + samples);
+                total[0]++;
+                if (stacks[0].size() >= chunkSize) {
+                    writeStacks(stream, stacks[0]);
+                    stacks[0] = new JsonArray();
+                }
+            });
+        } catch (StreamWriteException e) {
+            throw e.getCause();
+        }
+        if (stacks[0].size() > 0) {
+            JsonObject part = new JsonObject();
+            part.add("stacks", stacks[0]);
+            stream.write(part);
+        }
+
+        JsonObject summary = session.toJson();
+        summary.addProperty("format", "collapsed");
+        summary.addProperty("stacks", total[0]);
+        return summary;
+    }
+
+    /**
+     * Write a stacks[] part from inside a callback that cannot throw
+     * checked exceptions; streamProfile unwraps them again.
+     */
+    private static void writeStacks(RpcStream stream, JsonArray stacks) {
+        JsonObject part = new JsonObject();
+        part.add("stacks", stacks);
+        try {
+            stream.write(part);
+        } catch (InterruptedException | TimeoutException | IOException e) {
+            throw new StreamWriteException(e);
+        }
+    }
+
+    /**
+     * server.jfr.stop - stop the recording and stream the .jfr file
+     * Each part has offset and data (Base64), chunk_size bytes per part
+     * (default 256 KiB). The file is deleted once sent.
+     */
+    private JsonObject streamJfr(RpcStream stream) throws Exception {
+        JfrRecorder recorder = EasyMcAdmin.getInstance().getJfrRecorder();
+        Path file = recorder != null ? recorder.stop() : null;
+        if (file == null) {
+            JsonObject error = new JsonObject();
+            error.addProperty("error", recorder == null ? "jfr disabled" : "no recording");
+            return error;
+        }
+
+        int chunkSize = stream.getRequest().getPayload().has("chunk_size")
+                ? Math.max(1024, Math.min(MAX_JFR_PART, stream.getRequest().getPayload().get("chunk_size").getAsInt()))
+                : 256 * 1024;
+
+        long offset = 0L;
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[chunkSize];
+            int read;
+            while ((read = in.readNBytes(buffer, 0, chunkSize)) > 0) {
+                JsonObject part = new JsonObject();
+                part.addProperty("offset", offset);
+                part.addProperty("data", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer, read)));
+                stream.write(part);
+                offset += read;
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("format", "jfr");
+        summary.addProperty("file_name", file.getFileName().toString());
+        summary.addProperty("size_bytes", offset);
+        return summary;
+    }
+
+    /**
+     * metrics.history - locally kept metrics for a time range
+     * Payload: from, to (ms, default the last hour), resolution ("1s", "1m",
+     * "1h" or "auto"), max_points (for auto, default 1000), series[]
+     * (default all) and chunk_points (points per part, default 600).
+     * Parts are MetricsHistory pages; the summary describes the store.
+     */
+    private JsonObject streamMetricsHistory(RpcStream stream) throws Exception {
+        MetricsHistory history = EasyMcAdmin.getInstance().getMetricsHistory();
+        if (history == null) {
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "metrics history disabled");
+            return error;
+        }
+
+        JsonObject payload = stream.getRequest().getPayload();
+        long to = payload.has("to") ? payload.get("to").getAsLong() : System.currentTimeMillis();
+        long from = payload.has("from") ? payload.get("from").getAsLong() : to - 3_600_000L;
+        int chunkPoints = payload.has("chunk_points")
+                ? Math.max(1, Math.min(MAX_HISTORY_POINTS, payload.get("chunk_points").getAsInt()))
+                : 600;
+        List<String> series = null;
+        if (payload.has("series")) {
+            series = new ArrayList<>();
+            for (JsonElement element : payload.getAsJsonArray("series")) {
+                series.add(element.getAsString());
+            }
+        }
+
+        String resolutionKey = payload.has("resolution") ? payload.get("resolution").getAsString() : "auto";
+        MetricsHistory.Resolution resolution = "auto".equals(resolutionKey)
+                ? history.pickResolution(from, to,
+                        payload.has("max_points") ? Math.max(1, payload.get("max_points").getAsInt()) : 1000)
+                : MetricsHistory.Resolution.fromKey(resolutionKey);
+        if (resolution == null) {
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "unknown resolution: " + resolutionKey);
+            return error;
+        }
+
+        int pages = 0;
+        long next = from;
+        while (next >= 0L) {
+            JsonObject page = history.read(resolution, next, to, series, chunkPoints);
+            next = page.has("next_from") ? page.get("next_from").getAsLong() : -1L;
+            if (page.getAsJsonArray("timestamps").size() > 0) {
+                stream.write(page);
+                pages++;
+            }
+        }
+
+        JsonObject summary = history.describe();
+        summary.addProperty("resolution", resolution.getKey());
+        summary.addProperty("parts", pages);
+        return summary;
+    }
+
+    /**
+     * player.roster - all known players, streamed in parts of chunk_size
+     * Each part is serialized on the main thread; the stream worker only waits
+     * for credits and sends. chunk_size is capped at MAX_ROSTER_PART so a single
+     * part never stalls a tick, and the worker gives up (stream_stalled) if the
+     * main thread does not get to a part in time.
+     */
+    private JsonObject streamPlayerRoster(RpcStream stream) throws Exception {
+        MainThreadQueue queue = EasyMcAdmin.getInstance().getMainThreadQueue();
+        int chunkSize = stream.getRequest().getPayload().has("chunk_size")
+                ? Math.max(1, Math.min(MAX_ROSTER_PART, stream.getRequest().getPayload().get("chunk_size").getAsInt()))
+                : 50;
+
+        OfflinePlayer[] allPlayers = awaitMainThread(stream,
+                queue.supply(MainThreadQueue.Priority.LOW, Bukkit::getOfflinePlayers));
+
+        for (int start = 0; start < allPlayers.length; start += chunkSize) {
+            int from = start;
+            int to = Math.min(allPlayers.length, start + chunkSize);
+            JsonArray players = awaitMainThread(stream, queue.supply(MainThreadQueue.Priority.LOW, () -> {
+                JsonArray array = new JsonArray();
+                for (int i = from; i < to; i++) {
+                    OfflinePlayer offlinePlayer = allPlayers[i];
+                    if (offlinePlayer.isOnline() && offlinePlayer.getPlayer() != null) {
+                        array.add(PlayerDataSerializer.getPlayerDetailsPayload(offlinePlayer.getPlayer()));
+                    } else {
+                        array.add(PlayerDataSerializer.getOfflinePlayerDetailsPayload(offlinePlayer));
+                    }
+                }
+                return array;
+            }));
+
+            JsonObject part = new JsonObject();
+            part.add("players", players);
+            stream.write(part);
+        }
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("total_players", allPlayers.length);
+        return summary;
+    }
+
+    /**
+     * Wait for main-thread work queued by a stream producer
+     * Gives up after MAIN_THREAD_WAIT_SECONDS or as soon as the stream is
+     * cancelled; either way the future is cancelled so the queue skips the
+     * work instead of running it for nobody.
+     */
+    private static <T> T awaitMainThread(RpcStream stream, CompletableFuture<T> future) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(MAIN_THREAD_WAIT_SECONDS);
+        try {
+            while (true) {
+                if (stream.isCancelled()) {
+                    throw new CancellationException("Stream cancelled");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Main thread did not run the part in "
+                            + MAIN_THREAD_WAIT_SECONDS + "s");
+                }
+                try {
+                    return future.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(MAIN_THREAD_POLL_MILLIS)),
+                            TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Poll the stream again
+                }
+            }
+        } finally {
+            future.cancel(false);
+        }
+    }
+
+    // ============================================================================
+    // BATCH
+    // ============================================================================
+
+    /**
+     * rpc.batch - run many sub-requests in one main-thread pass
+     * Payload: requests[] of {id, action, payload}. Response payload:
+     * responses[] of {id, action, status, metadata, payload, error}. The batch is
+     * queued once and executed in slices under the tick budget; each sub-request
+     * is still admitted against its own action's limits. Only main-thread
+     * actions can be batched, others are answered with not_batchable.
+     */
+    private void handleBatch(Packet packet) {
+        JsonElement requestsElement = packet.getPayload().get("requests");
+        if (requestsElement == null || !requestsElement.isJsonArray()) {
+            sendResponse(packet, new RpcErrorPacket("missing requests"));
+            return;
+        }
+
+        JsonArray requests = requestsElement.getAsJsonArray();
+        if (requests.size() > MAX_BATCH_SIZE) {
+            sendResponse(packet, new RpcErrorPacket("batch_too_large"));
+            return;
+        }
+
+        List<Packet> subRequests = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            JsonObject item = requests.get(i).isJsonObject() ? requests.get(i).getAsJsonObject() : new JsonObject();
+
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("action", item.has("action") ? item.get("action").getAsString() : "");
+            // Sub-requests are admitted against the batch's caller
+            if (packet.getMetadata().has("caller_id")) {
+                metadata.add("caller_id", packet.getMetadata().get("caller_id"));
+            }
+
+            String id = item.has("id") ? item.get("id").getAsString() : String.valueOf(i);
+            JsonObject payload = item.has("payload") && item.get("payload").isJsonObject()
+                    ? item.getAsJsonObject("payload")
+                    : new JsonObject();
+            subRequests.add(new GenericPacket(id, PacketType.RPC, metadata, payload));
+        }
+
+        runOnMainThread(packet, new BatchExecution(subRequests)::runSlice);
+    }
+
+    /**
+     * Batch in progress - executes sub-requests until the tick budget runs out
+     */
+    private class BatchExecution {
+        private final List<Packet> subRequests;
+        private final JsonArray responses;
+        private int index = 0;
+
+        BatchExecution(List<Packet> subRequests) {
+            this.subRequests = subRequests;
+            this.responses = new JsonArray(subRequests.size());
+        }
+
+        /**
+         * Run as many sub-requests as fit in this tick (at least one)
+         *
+         * @return Batch response once every sub-request has run, otherwise null
+         */
+        Packet runSlice() {
+            MainThreadQueue queue = EasyMcAdmin.getInstance().getMainThreadQueue();
+            while (index < subRequests.size()) {
+                Packet subRequest = subRequests.get(index++);
+                responses.add(toBatchItem(subRequest, executeSubRequest(subRequest)));
+
+                if (!queue.hasTimeRemaining()) {
+                    break;
+                }
+            }
+
+            if (index < subRequests.size()) {
+                return null;
+            }
+
+            JsonObject metadata = new JsonObject();
+            metadata.addProperty("action", BATCH_ACTION);
+            JsonObject payload = new JsonObject();
+            payload.add("responses", responses);
+            return new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, metadata, payload);
+        }
+
+        private Packet executeSubRequest(Packet subRequest) {
+            String action = subRequest.getAction();
+            RpcRequestHandler handler = mainThreadHandlers.get(action);
+            if (handler == null) {
+                // Direct and stream handlers may block or start long work; they do not
+                // belong on the main thread
+                return directHandlers.containsKey(action) || workerHandlers.containsKey(action)
+                        || streamHandlers.containsKey(action)
+                        ? new RpcErrorPacket("not_batchable")
+                        : new RpcErrorPacket("unknown_action");
+            }
 
-        switch (packet.getAction()) {
-            case "server.execute_console_command":
-                if (packet.getPayload().has("command")) {
-                    String command = packet.getPayload().get("command").getAsString();
-
-                    Bukkit.getServer().getScheduler().runTask(EasyMcAdmin.getInstance(), () -> {
-                        try {
-                            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
-
-                            // Send RPC response
-                            com.google.gson.JsonObject responsePayload = new com.google.gson.JsonObject();
-                            responsePayload.addProperty("output", "Command executed: " + command);
-
-                            com.google.gson.JsonObject responseMetadata = new com.google.gson.JsonObject();
-                            responseMetadata.addProperty("action", "console_command");
-
-                            com.hasirciogluhq.easymcadmin.packets.GenericPacket responsePacket = new com.hasirciogluhq.easymcadmin.packets.GenericPacket(
-                                    java.util.UUID.randomUUID().toString(),
-                                    PacketType.RPC,
-                                    responseMetadata,
-                                    responsePayload);
-
-                            transportManager.sendRpcResponsePacket(packet, responsePacket);
-                        } catch (Exception e) {
-                            // Send error response
-                            com.google.gson.JsonObject errorPayload = new com.google.gson.JsonObject();
-                            errorPayload.addProperty("error", "Failed to execute command: " + e.getMessage());
-
-                            com.google.gson.JsonObject errorMetadata = new com.google.gson.JsonObject();
-                            errorMetadata.addProperty("action", "console_command");
-
-                            com.hasirciogluhq.easymcadmin.packets.GenericPacket errorResponsePacket = new com.hasirciogluhq.easymcadmin.packets.GenericPacket(
-                                    java.util.UUID.randomUUID().toString(),
-                                    PacketType.RPC,
-                                    errorMetadata,
-                                    errorPayload);
-
-                            try {
-                                transportManager.sendRpcResponsePacket(packet, errorResponsePacket);
-                            } catch (java.io.IOException ioException) {
-                                EasyMcAdmin.getInstance().getLogger()
-                                        .warning("Failed to send error response: " + ioException.getMessage());
-                            }
-                        }
-                    });
+            RpcAdmissionController admission = EasyMcAdmin.getInstance().getRpcAdmissionController();
+            RpcAdmissionController.Rejection rejection = admission.tryAcquire(subRequest);
+            if (rejection != null) {
+                return new RpcErrorPacket(rejection.getError(), rejection.getRetryAfterMs());
+            }
+            try {
+                return execute(handler, subRequest);
+            } finally {
+                admission.release(subRequest);
+            }
+        }
+
+        private JsonObject toBatchItem(Packet subRequest, Packet subResponse) {
+            JsonObject item = new JsonObject();
+            item.addProperty("id", subRequest.getPacketId());
+            item.addProperty("action", subRequest.getAction());
+
+            JsonObject payload = subResponse.getPayload();
+            if (payload.has("error")) {
+                item.addProperty("status", "error");
+                item.add("error", payload.get("error"));
+            } else {
+                item.addProperty("status", "ok");
+            }
+            item.add("metadata", subResponse.getMetadata());
+            item.add("payload", payload);
+            return item;
+        }
+    }
+
+    // ============================================================================
+    // HELPERS
+    // ============================================================================
+
+    /**
+     * Run an RPC handler on the main thread
+     * Requests over the admission limits are rejected with a retry hint instead
+     * of being queued. The deadline is checked again right before the first
+     * slice, so requests that expired while queued (e.g. during a lag spike) are
+     * dropped cheaply. A slice returning null is re-queued to continue next
+     * drain; once started, a request is never dropped for its deadline.
+     *
+     * @param packet RPC request packet
+     * @param slice  Handler body, returns the response once the request is done
+     */
+    private void runOnMainThread(Packet packet, Supplier<Packet> slice) {
+        RpcAdmissionController admission = EasyMcAdmin.getInstance().getRpcAdmissionController();
+        RpcAdmissionController.Rejection rejection = admission.tryAcquire(packet);
+        if (rejection != null) {
+            reject(packet, "main", rejection);
+            return;
+        }
+
+        RpcMetrics.inboundAdmitted(packet.getAction());
+        submitSlice(new InboundRequest(packet, slice, admission));
+    }
+
+    /**
+     * Inbound request queued for the main thread, with its timing
+     */
+    private static class StreamWriteException extends RuntimeException {
+        StreamWriteException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    private static class InboundRequest {
+        final Packet packet;
+        final Supplier<Packet> slice;
+        final RpcAdmissionController admission;
+        final long queuedAtNanos = System.nanoTime();
+        final RpcEvent event;
+        long executeNanos = 0L;
+        boolean started = false;
+
+        InboundRequest(Packet packet, Supplier<Packet> slice, RpcAdmissionController admission) {
+            this.packet = packet;
+            this.slice = slice;
+            this.admission = admission;
+            this.event = RpcEvent.start(RpcEvent.INBOUND, "main", packet.getAction());
+        }
+    }
+
+    private void submitSlice(InboundRequest request) {
+        EasyMcAdmin.getInstance().getMainThreadQueue().submit(MainThreadQueue.Priority.HIGH, () -> {
+            OverheadMonitor overhead = EasyMcAdmin.getInstance().getOverheadMonitor();
+            long overheadStart = overhead.begin();
+            long startNanos = System.nanoTime();
+            boolean firstSlice = !request.started;
+            if (firstSlice) {
+                request.started = true;
+                RpcMetrics.inboundQueueWait(request.packet.getAction(), request.queuedAtNanos, startNanos);
+                request.event.queueWait = startNanos - request.queuedAtNanos;
+            }
+
+            boolean done = true;
+            try {
+                // Only before the first slice: a started request runs to completion,
+                // dropping it midway would discard work that already had side effects
+                if (firstSlice && RpcDeadline.isExpired(request.packet)) {
+                    rejectExpired(request.packet);
+                    request.event.outcome = "deadline_exceeded";
+                    return;
                 }
-                break;
-
-            case "player.inventory.request":
-                if (packet.getPayload().has("player_uuid")) {
-                    Bukkit.getLogger().log(Level.INFO, "player.inventory.request RPC Received");
-                    String playerUUIDStr = packet.getPayload().get("player_uuid").getAsString();
-
-                    Bukkit.getServer().getScheduler().runTask(EasyMcAdmin.getInstance(), () -> {
-                        try {
-                            UUID playerUUID = UUID.fromString(playerUUIDStr);
-                            // Use handlePlayerInventorySyncRequest method which calls
-                            // sendPlayerInventoryUpdate
-                            Bukkit.getLogger().log(Level.INFO, "UUID: " + playerUUIDStr);
-                            if (EasyMcAdmin.getInstance().getPlayerListListener() != null) {
-                                Player p = Bukkit.getPlayer(playerUUID);
-
-                                Boolean isOnline = (p != null && p.isOnline()) ? true : false;
-
-                                if (!isOnline) {
-                                    Bukkit.getLogger().log(Level.INFO, "Player is offline sending error");
-
-                                    RpcErrorPacket errPacket = new RpcErrorPacket("player offline");
-                                    transportManager.sendRpcResponsePacket(packet, errPacket);
-                                    return;
-                                }
-
-                                String inventoryHash = InventorySerializer
-                                        .calculateInventoryHash(p.getInventory());
-                                String enderChestHash = InventorySerializer
-                                        .calculateEnderChestHash(p.getEnderChest());
-                                JsonObject inventoryData = EasyMcAdmin.getInstance().getInventoryChangeListener()
-                                        .generatePlayerInventoryData(p, true);
-                                PlayerInventoryChangedPacket playerInventoryRequestResponseRpc = new PlayerInventoryChangedPacket(
-                                        inventoryHash, enderChestHash, true, inventoryData);
-
-                                transportManager.sendRpcResponsePacket(packet, playerInventoryRequestResponseRpc);
-
-                                // RpcErrorPacket errPacket = new RpcErrorPacket("player offline");
-                                // responseRpcPacket = errPacket;
-                                Bukkit.getLogger().log(Level.INFO, "Player response packet sent");
-                            } else {
-                                RpcErrorPacket errPacket = new RpcErrorPacket("internal error");
-                                transportManager.sendRpcResponsePacket(packet, errPacket);
-                            }
-
-                        } catch (Exception e) {
-                            // Send error response
-                            Bukkit.getLogger().log(Level.INFO, "Player rpc handling internal error.." + e.getMessage());
-                            RpcErrorPacket errPacket = new RpcErrorPacket("internal error");
-
-                            try {
-                                transportManager.sendRpcResponsePacket(packet, errPacket);
-                            } catch (java.io.IOException ioException) {
-                                EasyMcAdmin.getInstance().getLogger()
-                                        .warning("Failed to send error response: " + ioException.getMessage());
-                            }
-                        }
-                    });
+                Packet response = request.slice.get();
+                done = response != null;
+                if (done) {
+                    sendResponse(request.packet, response);
+                    request.event.outcome = outcomeOf(response.getPayload());
                 }
-                break;
+            } finally {
+                overhead.end(OverheadMonitor.Feature.RPC, overheadStart);
+                request.executeNanos += System.nanoTime() - startNanos;
+                if (done) {
+                    RpcMetrics.inboundFinished(request.packet.getAction(), request.executeNanos);
+                    if (request.event.outcome == null) {
+                        request.event.outcome = "error";
+                    }
+                    request.event.commit();
+                    request.admission.release(request.packet);
+                } else {
+                    submitSlice(request);
+                }
+            }
+        }, () -> {
+            // Queue stopped (plugin disabling): nobody will answer, free the slot
+            request.event.outcome = "cancelled";
+            request.event.commit();
+            request.admission.release(request.packet);
+        });
+    }
+
+    /**
+     * Run a thread-safe RPC handler on the calling thread
+     * The transport thread for direct handlers, a worker for blocking ones.
+     *
+     * @param packet  RPC request packet
+     * @param handler Handler that does not touch the Bukkit API
+     * @param mode    direct or worker, for the event
+     */
+    private void runDirect(Packet packet, RpcRequestHandler handler, String mode) {
+        RpcAdmissionController admission = EasyMcAdmin.getInstance().getRpcAdmissionController();
+        RpcAdmissionController.Rejection rejection = admission.tryAcquire(packet);
+        if (rejection != null) {
+            reject(packet, mode, rejection);
+            return;
+        }
+
+        RpcMetrics.inboundAdmitted(packet.getAction());
+        RpcEvent event = RpcEvent.start(RpcEvent.INBOUND, mode, packet.getAction());
+        event.outcome = "error";
+        long startNanos = System.nanoTime();
+        try {
+            Packet response = execute(handler, packet);
+            sendResponse(packet, response);
+            event.outcome = outcomeOf(response.getPayload());
+        } finally {
+            RpcMetrics.inboundFinished(packet.getAction(), System.nanoTime() - startNanos);
+            event.commit();
+            admission.release(packet);
+        }
+    }
+
+    /**
+     * Admit a streaming request and start its producer
+     * The admission slot is held until the terminal frame is sent.
+     *
+     * @param packet   RPC request packet
+     * @param producer Producer writing the parts
+     */
+    private void openStream(Packet packet, RpcStreamProducer producer) {
+        RpcAdmissionController admission = EasyMcAdmin.getInstance().getRpcAdmissionController();
+        RpcAdmissionController.Rejection rejection = admission.tryAcquire(packet);
+        if (rejection != null) {
+            reject(packet, "stream", rejection);
+            return;
+        }
+
+        RpcMetrics.inboundAdmitted(packet.getAction());
+        RpcEvent event = RpcEvent.start(RpcEvent.INBOUND, "stream", packet.getAction());
+        long openedAtNanos = System.nanoTime();
+        EasyMcAdmin.getInstance().getRpcStreamManager().open(packet, producer, terminal -> {
+            RpcMetrics.inboundFinished(packet.getAction(), System.nanoTime() - openedAtNanos);
+            event.outcome = outcomeOf(terminal);
+            event.commit();
+            admission.release(packet);
+        });
+    }
+
+    /**
+     * Answer a retried request from the response cache
+     * A retry of a request still executing is answered when the original
+     * completes; a retry of a completed request is answered right away.
+     *
+     * @param packet RPC request packet
+     * @return true if the request was answered (or will be) without executing it
+     */
+    private boolean answerFromCache(Packet packet) {
+        CompletableFuture<Packet> previous = EasyMcAdmin.getInstance().getRpcResponseCache().begin(packet);
+        if (previous == null) {
+            return false;
+        }
+
+        previous.thenAccept(response -> {
+            // Copy the metadata: rpc_id is set per request on send
+            Packet copy = new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC,
+                    response.getMetadata().deepCopy(), response.getPayload());
+            try {
+                transportManager.sendRpcResponsePacket(packet, copy);
+            } catch (IOException e) {
+                EasyMcAdmin.getInstance().getLogger()
+                        .warning("Failed to send cached " + packet.getAction() + " response: " + e.getMessage());
+            }
+        });
+        return true;
+    }
 
-            default:
-                break;
+    /**
+     * Execute a handler, turning unexpected failures into an error response
+     */
+    private Packet execute(RpcRequestHandler handler, Packet request) {
+        try {
+            return handler.handle(request);
+        } catch (Exception e) {
+            EasyMcAdmin.getInstance().getLogger()
+                    .warning("RPC " + request.getAction() + " failed: " + e.getMessage());
+            return new RpcErrorPacket("internal error");
         }
     }
+
+    private void sendResponse(Packet request, Packet response) {
+        if (response.getPayload().has("error")) {
+            RpcMetrics.inboundError(request.getAction());
+        }
+        int encodedBytes = 0;
+        try {
+            encodedBytes = transportManager.sendRpcResponsePacket(request, response);
+        } catch (IOException e) {
+            EasyMcAdmin.getInstance().getLogger()
+                    .warning("Failed to send " + request.getAction() + " response: " + e.getMessage());
+        }
+        EasyMcAdmin.getInstance().getRpcResponseCache().complete(request, response, encodedBytes);
+    }
+
+    /**
+     * Answer a request that was not admitted, with its retry hint
+     *
+     * @param packet    RPC request packet
+     * @param mode      Where the request would have run, for the event
+     * @param rejection Admission rejection
+     */
+    private void reject(Packet packet, String mode, RpcAdmissionController.Rejection rejection) {
+        RpcEvent event = RpcEvent.start(RpcEvent.INBOUND, mode, packet.getAction());
+        sendResponse(packet, new RpcErrorPacket(rejection.getError(), rejection.getRetryAfterMs()));
+        event.outcome = "rejected";
+        event.commit();
+    }
+
+    /**
+     * Get the RpcEvent outcome for a response or terminal stream frame
+     *
+     * @param payload Response payload
+     * @return ok, deadline_exceeded, cancelled or error
+     */
+    private static String outcomeOf(JsonObject payload) {
+        if (!payload.has("error")) {
+            return "ok";
+        }
+        String error = payload.get("error").isJsonPrimitive() ? payload.get("error").getAsString() : "";
+        if (RpcDeadline.ERROR_DEADLINE_EXCEEDED.equals(error) || "cancelled".equals(error)) {
+            return error;
+        }
+        return "error";
+    }
+
+    /**
+     * Answer an expired request with a deadline_exceeded error
+     *
+     * @param packet RPC request packet
+     */
+    private void rejectExpired(Packet packet) {
+        RpcDeadline.recordDropped();
+        sendResponse(packet, new RpcErrorPacket(RpcDeadline.ERROR_DEADLINE_EXCEEDED));
+    }
 }
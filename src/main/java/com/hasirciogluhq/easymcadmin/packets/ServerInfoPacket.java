@@ -0,0 +1,30 @@
+package com.hasirciogluhq.easymcadmin.packets;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.metrics.MetricBuffer;
+
+import java.util.UUID;
+
+/**
+ * Server info packet - EVENT type
+ * Sent once per session after auth with values that never change while the
+ * server runs (serverName, minecraftVersion, bukkitVersion, ...)
+ */
+public class ServerInfoPacket extends Packet {
+
+    public ServerInfoPacket(MetricBuffer info) {
+        super(
+            UUID.randomUUID().toString(),
+            PacketType.EVENT,
+            createMetadata(),
+            info.toJson()
+        );
+    }
+
+    private static JsonObject createMetadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("action", "server_info");
+        metadata.addProperty("requires_response", false);
+        return metadata;
+    }
+}
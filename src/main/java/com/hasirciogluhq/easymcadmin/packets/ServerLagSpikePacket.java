@@ -0,0 +1,30 @@
+package com.hasirciogluhq.easymcadmin.packets;
+
+import com.google.gson.JsonObject;
+
+import java.util.UUID;
+
+/**
+ * Server lag spike packet - EVENT type
+ * Sent by the lag watchdog after a tick took longer than the threshold, with
+ * the main thread stacks captured while it was stuck. ongoing: true marks an
+ * in-progress report for a tick that has not completed yet
+ */
+public class ServerLagSpikePacket extends Packet {
+
+    public ServerLagSpikePacket(JsonObject spike) {
+        super(
+            UUID.randomUUID().toString(),
+            PacketType.EVENT,
+            createMetadata(),
+            spike
+        );
+    }
+
+    private static JsonObject createMetadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("action", "server.lag_spike");
+        metadata.addProperty("requires_response", false);
+        return metadata;
+    }
+}
@@ -0,0 +1,43 @@
+package com.hasirciogluhq.easymcadmin.packets;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.metrics.MetricBatch;
+
+import java.util.UUID;
+
+/**
+ * Server metrics batch packet - EVENT type
+ * High-resolution samples (about one row per second) as delta/varint encoded
+ * columns, see MetricBatch. Optionally carries every tick's duration in
+ * microseconds, encoded the same way.
+ */
+public class ServerMetricsBatchPacket extends Packet {
+
+    public ServerMetricsBatchPacket(JsonObject batch, String tickSource, long[] tickMicros) {
+        super(
+            UUID.randomUUID().toString(),
+            PacketType.EVENT,
+            createMetadata(),
+            createPayload(batch, tickSource, tickMicros)
+        );
+    }
+
+    private static JsonObject createMetadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("action", "server_metrics_batch");
+        metadata.addProperty("requires_response", false);
+        return metadata;
+    }
+
+    private static JsonObject createPayload(JsonObject batch, String tickSource, long[] tickMicros) {
+        if (tickMicros != null) {
+            JsonObject ticks = new JsonObject();
+            ticks.addProperty("source", tickSource);
+            ticks.addProperty("count", tickMicros.length);
+            ticks.addProperty("unit", "us");
+            ticks.addProperty("data", MetricBatch.encode(tickMicros, tickMicros.length));
+            batch.add("ticks", ticks);
+        }
+        return batch;
+    }
+}
@@ -9,11 +9,21 @@ import com.hasirciogluhq.easymcadmin.packets.PacketType;
 public class GenericAuthPacket extends Packet {
 
     public GenericAuthPacket(String token) {
+        this(token, null);
+    }
+
+    /**
+     * Auth request that asks the backend to resume a previous session
+     *
+     * @param token       Server token
+     * @param resumeToken Resumption token from the last successful auth, may be null
+     */
+    public GenericAuthPacket(String token, String resumeToken) {
         super(
                 UUID.randomUUID().toString(),
                 PacketType.RPC,
                 createMetadata(),
-                createPayload(token));
+                createPayload(token, resumeToken));
     }
 
     private static JsonObject createMetadata() {
@@ -22,9 +32,12 @@ public class GenericAuthPacket extends Packet {
         return metadata;
     }
 
-    private static JsonObject createPayload(String token) {
+    private static JsonObject createPayload(String token, String resumeToken) {
         JsonObject payload = new JsonObject();
         payload.addProperty("token", token);
+        if (resumeToken != null) {
+            payload.addProperty("resume_token", resumeToken);
+        }
         return payload;
     }
 }
@@ -19,4 +19,24 @@ public class GenericAuthPacketResponse extends Packet {
     public String getServerId() {
         return payload.has("server_id") ? payload.get("server_id").getAsString() : "";
     }
+
+    /**
+     * Token to send with the next auth request to resume this session
+     *
+     * @return Resumption token, or null if the backend did not issue one
+     */
+    public String getResumeToken() {
+        return payload.has("resume_token") && !payload.get("resume_token").isJsonNull()
+                ? payload.get("resume_token").getAsString()
+                : null;
+    }
+
+    /**
+     * Whether the backend resumed the previous session (its state is intact)
+     *
+     * @return true if resumed
+     */
+    public boolean isResumed() {
+        return payload.has("resumed") && payload.get("resumed").getAsBoolean();
+    }
 }
@@ -0,0 +1,45 @@
+package com.hasirciogluhq.easymcadmin.packets.console;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+import com.hasirciogluhq.easymcadmin.packets.PacketType;
+
+import java.util.UUID;
+
+/**
+ * Console output batch packet - EVENT type
+ * Many console lines in one packet. Each line has the console_output fields
+ * (message, level, kind, type) plus timestamp, logger, thread and the
+ * history offset (see console.history). Collapsed
+ * repeats also carry repeat_count and first_timestamp.
+ */
+public class ConsoleOutputBatchPacket extends Packet {
+
+    public ConsoleOutputBatchPacket(JsonArray lines, long droppedLines, JsonObject suppressed) {
+        super(
+                UUID.randomUUID().toString(),
+                PacketType.EVENT,
+                createMetadata(),
+                createPayload(lines, droppedLines, suppressed));
+    }
+
+    private static JsonObject createMetadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("action", "console_output_batch");
+        metadata.addProperty("requires_response", false);
+        return metadata;
+    }
+
+    private static JsonObject createPayload(JsonArray lines, long droppedLines, JsonObject suppressed) {
+        JsonObject payload = new JsonObject();
+        payload.add("lines", lines);
+        // Lines lost since the previous batch (buffer full)
+        payload.addProperty("dropped", droppedLines);
+        // Lines collapsed or sampled out since the previous batch
+        if (suppressed != null) {
+            payload.add("suppressed", suppressed);
+        }
+        return payload;
+    }
+}
@@ -21,6 +21,17 @@ public class RpcErrorPacket extends Packet {
         );
     }
 
+    /**
+     * Create an error response with a retry hint
+     *
+     * @param error        Error code or message
+     * @param retryAfterMs Milliseconds the caller should wait before retrying
+     */
+    public RpcErrorPacket(String error, long retryAfterMs) {
+        this(error);
+        payload.addProperty("retry_after_ms", retryAfterMs);
+    }
+
     private static JsonObject createPayload(String error) {
         JsonObject payload = new JsonObject();
         payload.addProperty("error", error);
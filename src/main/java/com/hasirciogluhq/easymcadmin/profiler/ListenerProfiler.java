@@ -0,0 +1,305 @@
+package com.hasirciogluhq.easymcadmin.profiler;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.metrics.MetricBuffer;
+import com.hasirciogluhq.easymcadmin.metrics.MetricSource;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener Profiler - event listener time per plugin and event class
+ * While enabled, every RegisteredListener of every plugin is replaced by a
+ * wrapper that times one in sample-every calls with System.nanoTime(). Times
+ * go into striped LongAdders per (plugin, event class), so listeners firing
+ * on many threads do not contend. Totals are estimates: sampled time
+ * multiplied by sample-every. Event classes are told apart by their full
+ * name and shown by their simple name.
+ *
+ * Listeners registered after enable() are not wrapped. Must be enabled and
+ * disabled on the main thread.
+ */
+public class ListenerProfiler implements MetricSource {
+    private static final int METRICS_TOP = 10;
+
+    // Replaced, not cleared, on reset so wrappers drop their cached Stats
+    private volatile Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private volatile int sampleEvery;
+    private volatile boolean enabled = false;
+    private volatile long enabledAtMillis = 0L;
+
+    /**
+     * Accumulated time of one plugin's listeners for one event class
+     */
+    private static final class Stat {
+        final String plugin;
+        final String event;
+        final String eventClass;
+        final LongAdder nanos = new LongAdder();
+        final LongAdder calls = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Stat(String plugin, String event, String eventClass) {
+            this.plugin = plugin;
+            this.event = event;
+            this.eventClass = eventClass;
+        }
+
+        void record(long elapsed) {
+            nanos.add(elapsed);
+            calls.increment();
+            if (elapsed > maxNanos.get()) {
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Wrapper around one plugin's RegisteredListener
+     */
+    private final class TimedListener extends RegisteredListener {
+        private final RegisteredListener delegate;
+        private final String pluginName;
+        // Last event class seen, its Stat and the stats map it belongs to,
+        // swapped as one object
+        private volatile Object[] cached = new Object[3];
+
+        TimedListener(RegisteredListener delegate) {
+            super(delegate.getListener(), (listener, event) -> {
+            }, delegate.getPriority(), delegate.getPlugin(), delegate.isIgnoringCancelled());
+            this.delegate = delegate;
+            this.pluginName = delegate.getPlugin().getName();
+        }
+
+        @Override
+        public void callEvent(Event event) throws EventException {
+            int every = sampleEvery;
+            if (!enabled || (every > 1 && ThreadLocalRandom.current().nextInt(every) != 0)) {
+                delegate.callEvent(event);
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                delegate.callEvent(event);
+            } finally {
+                statFor(event.getClass()).record(System.nanoTime() - start);
+            }
+        }
+
+        private Stat statFor(Class<?> eventClass) {
+            Object[] entry = cached;
+            Map<String, Stat> current = stats;
+            if (entry[0] == eventClass && entry[2] == current) {
+                return (Stat) entry[1];
+            }
+            Stat stat = current.computeIfAbsent(pluginName + "\u0000" + eventClass.getName(),
+                    k -> new Stat(pluginName, eventClass.getSimpleName(), eventClass.getName()));
+            cached = new Object[] { eventClass, stat, current };
+            return stat;
+        }
+    }
+
+    /**
+     * Create a listener profiler
+     *
+     * @param sampleEvery Time one in this many listener calls
+     */
+    public ListenerProfiler(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     * Wrap all registered listeners and start timing
+     * Changing the ratio while enabled starts the totals over, since times
+     * sampled at the old ratio cannot be scaled by the new one.
+     *
+     * @param sampleEvery Time one in this many listener calls, or 0 to keep the current ratio
+     * @return Number of listeners wrapped
+     */
+    public synchronized int enable(int sampleEvery) {
+        if (enabled) {
+            if (sampleEvery > 0 && sampleEvery != this.sampleEvery) {
+                this.sampleEvery = sampleEvery;
+                stats = new ConcurrentHashMap<>();
+                enabledAtMillis = System.currentTimeMillis();
+            }
+            return 0;
+        }
+        if (sampleEvery > 0) {
+            this.sampleEvery = sampleEvery;
+        }
+        stats = new ConcurrentHashMap<>();
+        enabledAtMillis = System.currentTimeMillis();
+        enabled = true;
+
+        int wrapped = 0;
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            wrapped += rebuild(handlerList, true);
+        }
+        return wrapped;
+    }
+
+    /**
+     * Stop timing and restore the original listeners
+     * Collected times are kept until the next enable(). Listeners keep their
+     * order, including ones registered while profiling was on.
+     */
+    public synchronized void disable() {
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            rebuild(handlerList, false);
+        }
+    }
+
+    /**
+     * Re-register every listener of a handler list in its current order,
+     * wrapped or unwrapped
+     * register() appends to the end of a priority slot, so all listeners are
+     * re-registered, not only the swapped ones: otherwise a listener that was
+     * left alone would move ahead of the swapped ones in its slot.
+     *
+     * @param handlerList Handler list
+     * @param wrap        true to wrap listeners, false to restore them
+     * @return Number of listeners swapped
+     */
+    private int rebuild(HandlerList handlerList, boolean wrap) {
+        // Holding the list's lock keeps a concurrent bake() from seeing
+        // listeners missing between unregister and register
+        synchronized (handlerList) {
+            // A copy: getRegisteredListeners() returns the baked array events fire from
+            RegisteredListener[] listeners = handlerList.getRegisteredListeners().clone();
+            int swapped = 0;
+            for (int i = 0; i < listeners.length; i++) {
+                RegisteredListener listener = listeners[i];
+                if (wrap && !(listener instanceof TimedListener)) {
+                    listeners[i] = new TimedListener(listener);
+                    swapped++;
+                } else if (!wrap && listener instanceof TimedListener) {
+                    listeners[i] = ((TimedListener) listener).delegate;
+                    swapped++;
+                }
+            }
+            if (swapped == 0) {
+                return 0;
+            }
+
+            for (RegisteredListener listener : handlerList.getRegisteredListeners()) {
+                handlerList.unregister(listener);
+            }
+            // getRegisteredListeners() is ordered by priority, then by slot order
+            for (RegisteredListener listener : listeners) {
+                handlerList.register(listener);
+            }
+            return swapped;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the top plugins and (plugin, event) pairs by estimated time
+     * Keys: enabled, since, sample_every, plugins[] of {plugin, time_ms,
+     * calls} and events[] of {plugin, event, event_class, time_ms, calls,
+     * max_us}.
+     *
+     * @param limit Rows per table
+     * @return JsonObject with both tables
+     */
+    public JsonObject toJson(int limit) {
+        int every = sampleEvery;
+        List<Stat> eventStats = new ArrayList<>(stats.values());
+        long[] eventNanos = new long[eventStats.size()];
+        Map<String, long[]> pluginTotals = new HashMap<>();
+        for (int i = 0; i < eventStats.size(); i++) {
+            Stat stat = eventStats.get(i);
+            eventNanos[i] = stat.nanos.sum();
+            long[] totals = pluginTotals.computeIfAbsent(stat.plugin, p -> new long[2]);
+            totals[0] += eventNanos[i];
+            totals[1] += stat.calls.sum();
+        }
+
+        // Sort indexes by time, descending
+        Integer[] order = new Integer[eventStats.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(eventNanos[b], eventNanos[a]));
+
+        JsonArray events = new JsonArray();
+        for (int i = 0; i < Math.min(limit, order.length); i++) {
+            Stat stat = eventStats.get(order[i]);
+            JsonObject row = new JsonObject();
+            row.addProperty("plugin", stat.plugin);
+            row.addProperty("event", stat.event);
+            row.addProperty("event_class", stat.eventClass);
+            row.addProperty("time_ms", eventNanos[order[i]] * every / 1_000_000.0);
+            row.addProperty("calls", stat.calls.sum() * every);
+            row.addProperty("max_us", stat.maxNanos.get() / 1000);
+            events.add(row);
+        }
+
+        List<Map.Entry<String, long[]>> pluginRows = new ArrayList<>(pluginTotals.entrySet());
+        pluginRows.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        JsonArray plugins = new JsonArray();
+        for (int i = 0; i < Math.min(limit, pluginRows.size()); i++) {
+            JsonObject row = new JsonObject();
+            row.addProperty("plugin", pluginRows.get(i).getKey());
+            row.addProperty("time_ms", pluginRows.get(i).getValue()[0] * every / 1_000_000.0);
+            row.addProperty("calls", pluginRows.get(i).getValue()[1] * every);
+            plugins.add(row);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("enabled", enabled);
+        json.addProperty("since", enabledAtMillis);
+        json.addProperty("sample_every", every);
+        json.add("plugins", plugins);
+        json.add("events", events);
+        return json;
+    }
+
+    @Override
+    public String getName() {
+        return "listener_timings";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    @Override
+    public void collect(MetricBuffer buffer) {
+    }
+
+    /**
+     * Add the top listeners while enabled
+     * Key: listener_timings (see toJson), totals since enable.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collectStructure(MetricBuffer buffer) {
+        if (enabled) {
+            buffer.putJson("listener_timings", toJson(METRICS_TOP));
+        }
+    }
+}
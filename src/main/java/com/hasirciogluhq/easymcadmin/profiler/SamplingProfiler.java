@@ -0,0 +1,239 @@
+package com.hasirciogluhq.easymcadmin.profiler;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.metrics.LatencyHistogram;
+import com.hasirciogluhq.easymcadmin.metrics.MetricBuffer;
+import com.hasirciogluhq.easymcadmin.metrics.MetricSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sampling Profiler - samples the server main thread's stack
+ * A daemon thread takes ThreadMXBean.getThreadInfo of the main thread every
+ * interval and adds the stack to a StackTrie. Stopping returns the trie, which
+ * is exported as collapsed stacks (flame graph input).
+ *
+ * Every sample briefly pauses the main thread at a safepoint, so the cost of
+ * each sample is measured and reported with the result and in the metrics.
+ * A profile stops by itself after its duration.
+ */
+public class SamplingProfiler implements MetricSource {
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final long mainThreadId;
+    private final int maxNodes;
+    private final long maxDurationMillis;
+    private final double defaultIntervalMs;
+    private final int defaultMaxDepth;
+
+    private Session session;
+
+    /**
+     * One profiling run
+     */
+    public static final class Session {
+        private final StackTrie trie;
+        private final long intervalNanos;
+        private final int maxDepth;
+        private final long durationMillis;
+        private final long startedAtMillis = System.currentTimeMillis();
+        private final long startedAtNanos = System.nanoTime();
+        private final LatencyHistogram sampleMicros = new LatencyHistogram();
+        private volatile boolean running = true;
+        private volatile long samplingNanos = 0L;
+        private volatile long stoppedAtNanos = 0L;
+        private long missedSamples = 0L;
+        private Thread thread;
+
+        Session(int maxNodes, long intervalNanos, int maxDepth, long durationMillis) {
+            this.trie = new StackTrie(maxNodes);
+            this.intervalNanos = intervalNanos;
+            this.maxDepth = maxDepth;
+            this.durationMillis = durationMillis;
+        }
+
+        /**
+         * Get the sampled stacks; only valid once the session has stopped
+         *
+         * @return StackTrie instance
+         */
+        public StackTrie getTrie() {
+            return trie;
+        }
+
+        /**
+         * Get the session summary
+         * Keys: interval_ms, started_at, duration_ms, samples, missed_samples,
+         * truncated_samples, nodes, sample_us (histogram) and overhead_pct
+         * (time spent sampling relative to the session length).
+         *
+         * @return JsonObject summary
+         */
+        public JsonObject toJson() {
+            long end = stoppedAtNanos != 0L ? stoppedAtNanos : System.nanoTime();
+            long elapsed = Math.max(1L, end - startedAtNanos);
+
+            JsonObject json = new JsonObject();
+            json.addProperty("interval_ms", intervalNanos / 1_000_000.0);
+            json.addProperty("started_at", startedAtMillis);
+            json.addProperty("duration_ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+            json.addProperty("running", running);
+            json.addProperty("samples", sampleMicros.getCount());
+            json.addProperty("missed_samples", missedSamples);
+            if (!running) {
+                json.addProperty("truncated_samples", trie.getTruncatedSamples());
+                json.addProperty("nodes", trie.getNodeCount());
+            }
+            json.add("sample_us", sampleMicros.toJson());
+            json.addProperty("overhead_pct", samplingNanos * 100.0 / elapsed);
+            return json;
+        }
+    }
+
+    /**
+     * Create a profiler for the server main thread
+     *
+     * @param mainThread        The server main thread
+     * @param maxNodes          Stack trie node budget per session
+     * @param maxDurationMillis Longest allowed session
+     * @param defaultIntervalMs Sampling interval if the request has none
+     * @param defaultMaxDepth   Frames kept per sample if the request has none
+     */
+    public SamplingProfiler(Thread mainThread, int maxNodes, long maxDurationMillis, double defaultIntervalMs,
+            int defaultMaxDepth) {
+        this.mainThreadId = mainThread.getId();
+        this.maxNodes = maxNodes;
+        this.maxDurationMillis = maxDurationMillis;
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.defaultMaxDepth = defaultMaxDepth;
+    }
+
+    /**
+     * Start a profiling session
+     * Payload: interval_ms, duration_seconds (capped at the configured
+     * maximum) and max_depth, all optional.
+     *
+     * @param payload Start payload
+     * @return Error message, or null if started
+     */
+    public synchronized String start(JsonObject payload) {
+        if (session != null && session.running) {
+            return "profiler already running";
+        }
+
+        double intervalMs = payload.has("interval_ms") ? payload.get("interval_ms").getAsDouble() : defaultIntervalMs;
+        long durationMillis = payload.has("duration_seconds")
+                ? payload.get("duration_seconds").getAsLong() * 1000L
+                : maxDurationMillis;
+        int maxDepth = payload.has("max_depth") ? payload.get("max_depth").getAsInt() : defaultMaxDepth;
+
+        Session started = new Session(maxNodes, (long) (Math.max(1.0, intervalMs) * 1_000_000L),
+                Math.max(1, maxDepth), Math.max(1000L, Math.min(maxDurationMillis, durationMillis)));
+        Thread thread = new Thread(() -> sample(started), "EasyMcAdmin-Profiler");
+        thread.setDaemon(true);
+        started.thread = thread;
+        session = started;
+        thread.start();
+        return null;
+    }
+
+    /**
+     * Stop the current session and wait for the sampler thread
+     *
+     * @return The stopped session (also if it already stopped by itself), or null if none
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Session stop() throws InterruptedException {
+        Session stopped;
+        synchronized (this) {
+            stopped = session;
+            session = null;
+        }
+        if (stopped == null) {
+            return null;
+        }
+        stopped.running = false;
+        LockSupport.unpark(stopped.thread);
+        stopped.thread.join();
+        return stopped;
+    }
+
+    /**
+     * Get the current session
+     *
+     * @return Running or finished session not yet collected by stop(), or null
+     */
+    public synchronized Session getSession() {
+        return session;
+    }
+
+    private void sample(Session session) {
+        long deadline = session.startedAtNanos + TimeUnit.MILLISECONDS.toNanos(session.durationMillis);
+        long next = System.nanoTime();
+        try {
+            while (session.running) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+
+                // Full stack: the JVM would cut the outermost frames, the trie needs them
+                ThreadInfo info = threadBean.getThreadInfo(mainThreadId, Integer.MAX_VALUE);
+                long took = System.nanoTime() - now;
+                if (info == null) {
+                    break; // Main thread is gone
+                }
+                session.trie.add(info.getStackTrace(), session.maxDepth);
+                session.sampleMicros.record(took / 1000);
+                session.samplingNanos += took;
+
+                next += session.intervalNanos;
+                if (next < now) {
+                    // Fell behind (e.g. a GC pause); skip instead of bursting
+                    long behind = (now - next) / session.intervalNanos + 1;
+                    session.missedSamples += behind;
+                    next += behind * session.intervalNanos;
+                }
+            }
+        } finally {
+            session.stoppedAtNanos = System.nanoTime();
+            session.running = false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "profiler";
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.DYNAMIC;
+    }
+
+    /**
+     * Add profiler state to a metrics packet
+     * Keys: profiler_running, and while running profiler_samples and
+     * profiler_overhead_pct.
+     *
+     * @param buffer Metrics buffer
+     */
+    @Override
+    public void collect(MetricBuffer buffer) {
+        Session current = getSession();
+        boolean running = current != null && current.running;
+        buffer.putBoolean("profiler_running", running);
+        if (running) {
+            long elapsed = Math.max(1L, System.nanoTime() - current.startedAtNanos);
+            buffer.putLong("profiler_samples", current.sampleMicros.getCount());
+            buffer.putDouble("profiler_overhead_pct", current.samplingNanos * 100.0 / elapsed);
+        }
+    }
+}
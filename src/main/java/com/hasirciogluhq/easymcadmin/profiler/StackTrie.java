@@ -0,0 +1,196 @@
+package com.hasirciogluhq.easymcadmin.profiler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Stack Trie - call stacks merged by common prefix, with sample counts
+ * Nodes live in parallel int/long arrays (first child / next sibling links)
+ * and frames are interned to ints, so adding a stack that was seen before
+ * allocates nothing. The node count is capped; once full, a new stack is
+ * counted on its deepest existing prefix and reported as truncated. A stack
+ * whose outermost frame is already new is reported as "[truncated]".
+ *
+ * Frames are "class.method" (line numbers merged). Not thread-safe.
+ */
+public class StackTrie {
+    private static final int ROOT = 0;
+    private static final String TRUNCATED_FRAME = "[truncated]";
+
+    private final int maxNodes;
+    private int[] frame;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private long[] selfSamples;
+    private int nodeCount;
+
+    private final Map<StackTraceElement, Integer> elementIds = new HashMap<>();
+    private final Map<String, Integer> frameIds = new HashMap<>();
+    private String[] frameNames = new String[256];
+
+    private long samples = 0L;
+    private long truncatedSamples = 0L;
+
+    /**
+     * Create an empty trie
+     *
+     * @param maxNodes Maximum number of nodes (memory budget)
+     */
+    public StackTrie(int maxNodes) {
+        this.maxNodes = Math.max(16, maxNodes);
+        int capacity = Math.min(this.maxNodes, 1024);
+        frame = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        selfSamples = new long[capacity];
+        frame[ROOT] = -1;
+        firstChild[ROOT] = -1;
+        nextSibling[ROOT] = -1;
+        nodeCount = 1;
+    }
+
+    /**
+     * Add one sampled stack
+     *
+     * @param stack    Stack trace, innermost frame first (as the JVM returns it)
+     * @param maxDepth Outermost frames kept at most
+     */
+    public void add(StackTraceElement[] stack, int maxDepth) {
+        samples++;
+        int node = ROOT;
+        int depth = Math.min(stack.length, maxDepth);
+        boolean truncated = false;
+        // Walk outermost to innermost
+        for (int i = stack.length - 1; i >= stack.length - depth; i--) {
+            int frameId = frameId(stack[i]);
+            int child = findChild(node, frameId);
+            if (child < 0) {
+                child = addChild(node, frameId);
+                if (child < 0) {
+                    truncated = true;
+                    break;
+                }
+            }
+            node = child;
+        }
+        selfSamples[node]++;
+        if (truncated) {
+            truncatedSamples++;
+        }
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getTruncatedSamples() {
+        return truncatedSamples;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Visit every stack with samples in collapsed-stack format
+     * Each line is "outer;...;inner" with the number of samples that ended
+     * in it, i.e. the input format of flamegraph.pl and speedscope.
+     *
+     * @param consumer Receives the collapsed stack and its sample count
+     */
+    public void forEachCollapsed(ObjIntConsumer<String> consumer) {
+        // Samples that got no node at all (trie full, new outermost frame)
+        if (selfSamples[ROOT] > 0) {
+            consumer.accept(TRUNCATED_FRAME, (int) Math.min(Integer.MAX_VALUE, selfSamples[ROOT]));
+        }
+
+        StringBuilder path = new StringBuilder();
+        // Iterative DFS; each entry is a node plus the path length before it
+        int[] nodes = new int[64];
+        int[] pathLengths = new int[64];
+        int top = 0;
+        for (int child = firstChild[ROOT]; child >= 0; child = nextSibling[child]) {
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top * 2);
+                pathLengths = Arrays.copyOf(pathLengths, top * 2);
+            }
+            nodes[top] = child;
+            pathLengths[top++] = 0;
+        }
+
+        while (top > 0) {
+            int node = nodes[--top];
+            path.setLength(pathLengths[top]);
+            if (path.length() > 0) {
+                path.append(';');
+            }
+            path.append(frameNames[frame[node]]);
+
+            if (selfSamples[node] > 0) {
+                consumer.accept(path.toString(), (int) Math.min(Integer.MAX_VALUE, selfSamples[node]));
+            }
+            int length = path.length();
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    pathLengths = Arrays.copyOf(pathLengths, top * 2);
+                }
+                nodes[top] = child;
+                pathLengths[top++] = length;
+            }
+        }
+    }
+
+    private int findChild(int parent, int frameId) {
+        for (int child = firstChild[parent]; child >= 0; child = nextSibling[child]) {
+            if (frame[child] == frameId) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    private int addChild(int parent, int frameId) {
+        if (nodeCount == maxNodes) {
+            return -1;
+        }
+        if (nodeCount == frame.length) {
+            int capacity = Math.min(maxNodes, frame.length * 2);
+            frame = Arrays.copyOf(frame, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            selfSamples = Arrays.copyOf(selfSamples, capacity);
+        }
+        int node = nodeCount++;
+        frame[node] = frameId;
+        firstChild[node] = -1;
+        nextSibling[node] = firstChild[parent];
+        selfSamples[node] = 0L;
+        firstChild[parent] = node;
+        return node;
+    }
+
+    private int frameId(StackTraceElement element) {
+        Integer id = elementIds.get(element);
+        if (id != null) {
+            return id;
+        }
+        String name = element.getClassName() + "." + element.getMethodName();
+        id = frameIds.get(name);
+        if (id == null) {
+            id = frameIds.size();
+            if (id == frameNames.length) {
+                frameNames = Arrays.copyOf(frameNames, id * 2);
+            }
+            frameNames[id] = name;
+            frameIds.put(name, id);
+        }
+        // Distinct line numbers count against the same budget as nodes
+        if (elementIds.size() < maxNodes) {
+            elementIds.put(element, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,210 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RPC Admission Controller - limits inbound RPC work before it is queued
+ * Every action has a max-in-flight count and a token bucket, and every caller
+ * (metadata.caller_id) has its own token bucket. Requests over a limit are
+ * rejected with a retry-after hint instead of being queued unboundedly.
+ *
+ * Config (config.yml):
+ * rpc.limits.default.{max-in-flight, rate, burst}
+ * rpc.limits.actions.&lt;action&gt;.{max-in-flight, rate, burst}
+ * rpc.limits.caller.{rate, burst}
+ * rpc.limits.retry-after-ms
+ */
+public class RpcAdmissionController {
+    public static final String ERROR_TOO_MANY_IN_FLIGHT = "too_many_in_flight";
+    public static final String ERROR_RATE_LIMITED = "rate_limited";
+
+    private static final int MAX_CALLERS = 1024;
+    private static final long CALLER_IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConfigurationSection config;
+    private final Limits defaultLimits;
+    private final double callerRate;
+    private final double callerBurst;
+    private final long retryAfterMs;
+    private final Map<String, ActionState> actions = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> callers = new ConcurrentHashMap<>();
+
+    /**
+     * Rejection result - returned when a request is not admitted
+     */
+    public static class Rejection {
+        private final String error;
+        private final long retryAfterMs;
+
+        public Rejection(String error, long retryAfterMs) {
+            this.error = error;
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+    }
+
+    private static class Limits {
+        final int maxInFlight;
+        final double rate;
+        final double burst;
+
+        Limits(int maxInFlight, double rate, double burst) {
+            this.maxInFlight = maxInFlight;
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+
+    private static class ActionState {
+        final Limits limits;
+        final TokenBucket bucket;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rejectedInFlight = new AtomicLong();
+        final AtomicLong rejectedRate = new AtomicLong();
+
+        ActionState(Limits limits) {
+            this.limits = limits;
+            this.bucket = new TokenBucket(limits.rate, limits.burst);
+        }
+    }
+
+    /**
+     * Create a new admission controller
+     *
+     * @param config rpc.limits config section, may be null to use defaults
+     */
+    public RpcAdmissionController(ConfigurationSection config) {
+        this.config = config;
+        this.defaultLimits = readLimits(config != null ? config.getConfigurationSection("default") : null,
+                new Limits(16, 20.0, 40.0));
+        this.callerRate = config != null ? config.getDouble("caller.rate", 10.0) : 10.0;
+        this.callerBurst = config != null ? config.getDouble("caller.burst", 20.0) : 20.0;
+        this.retryAfterMs = config != null ? config.getLong("retry-after-ms", 100L) : 100L;
+    }
+
+    /**
+     * Try to admit a request
+     * Must be paired with {@link #release(Packet)} once the request finishes.
+     *
+     * @param packet RPC request packet
+     * @return null if admitted, otherwise the rejection to send back
+     */
+    public Rejection tryAcquire(Packet packet) {
+        ActionState state = getState(packet.getAction());
+
+        int inFlight = state.inFlight.incrementAndGet();
+        if (state.limits.maxInFlight > 0 && inFlight > state.limits.maxInFlight) {
+            state.inFlight.decrementAndGet();
+            state.rejectedInFlight.incrementAndGet();
+            return new Rejection(ERROR_TOO_MANY_IN_FLIGHT, retryAfterMs);
+        }
+
+        long wait = state.bucket.tryAcquire();
+        if (wait == 0L) {
+            wait = getCallerBucket(getCallerId(packet)).tryAcquire();
+            if (wait > 0L) {
+                // Rejected by the caller limit: the action did not run
+                state.bucket.refund();
+            }
+        }
+        if (wait > 0L) {
+            state.inFlight.decrementAndGet();
+            state.rejectedRate.incrementAndGet();
+            return new Rejection(ERROR_RATE_LIMITED, wait);
+        }
+
+        state.admitted.incrementAndGet();
+        state.peakInFlight.accumulateAndGet(inFlight, Math::max);
+        return null;
+    }
+
+    /**
+     * Release an admitted request
+     *
+     * @param packet RPC request packet
+     */
+    public void release(Packet packet) {
+        ActionState state = actions.get(packet.getAction());
+        if (state != null) {
+            state.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get admission metrics per action
+     * in_flight counts requests queued or executing on the main thread.
+     *
+     * @return JsonObject keyed by action
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, ActionState> entry : actions.entrySet()) {
+            ActionState state = entry.getValue();
+            JsonObject obj = new JsonObject();
+            obj.addProperty("in_flight", state.inFlight.get());
+            obj.addProperty("peak_in_flight", state.peakInFlight.get());
+            obj.addProperty("max_in_flight", state.limits.maxInFlight);
+            obj.addProperty("admitted", state.admitted.get());
+            obj.addProperty("rejected_in_flight", state.rejectedInFlight.get());
+            obj.addProperty("rejected_rate", state.rejectedRate.get());
+            json.add(entry.getKey(), obj);
+        }
+        return json;
+    }
+
+    private ActionState getState(String action) {
+        return actions.computeIfAbsent(action, a -> {
+            ConfigurationSection section = config != null
+                    ? config.getConfigurationSection("actions")
+                    : null;
+            // Dotted action names resolve as nested paths, same as they load from YAML
+            return new ActionState(readLimits(
+                    section != null && !a.isEmpty() ? section.getConfigurationSection(a) : null,
+                    defaultLimits));
+        });
+    }
+
+    private TokenBucket getCallerBucket(String callerId) {
+        if (callers.size() > MAX_CALLERS) {
+            callers.values().removeIf(bucket -> bucket.isIdle(CALLER_IDLE_NANOS));
+        }
+        return callers.computeIfAbsent(callerId, c -> new TokenBucket(callerRate, callerBurst));
+    }
+
+    private static String getCallerId(Packet packet) {
+        if (packet.getMetadata().has("caller_id")) {
+            try {
+                return packet.getMetadata().get("caller_id").getAsString();
+            } catch (Exception ignored) {
+            }
+        }
+        return "backend";
+    }
+
+    private static Limits readLimits(ConfigurationSection section, Limits fallback) {
+        if (section == null) {
+            return fallback;
+        }
+        return new Limits(
+                section.getInt("max-in-flight", fallback.maxInFlight),
+                section.getDouble("rate", fallback.rate),
+                section.getDouble("burst", fallback.burst));
+    }
+}
@@ -0,0 +1,64 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RPC Deadline - checks the absolute deadline carried by inbound RPC requests
+ * The backend sets metadata.deadline (unix millis) to the moment it stops
+ * waiting for a response. Requests past that point are dropped instead of
+ * being executed on the main thread.
+ */
+public final class RpcDeadline {
+    public static final String ERROR_DEADLINE_EXCEEDED = "deadline_exceeded";
+
+    private static final AtomicLong droppedLate = new AtomicLong();
+
+    private RpcDeadline() {
+    }
+
+    /**
+     * Get the absolute deadline of a request
+     *
+     * @param packet RPC request packet
+     * @return Deadline in unix millis, or 0 if the request has no deadline
+     */
+    public static long getDeadline(Packet packet) {
+        if (!packet.getMetadata().has("deadline")) {
+            return 0L;
+        }
+        try {
+            return packet.getMetadata().get("deadline").getAsLong();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Check if the caller has already given up on a request
+     *
+     * @param packet RPC request packet
+     * @return true if the request carries a deadline that has passed
+     */
+    public static boolean isExpired(Packet packet) {
+        long deadline = getDeadline(packet);
+        return deadline > 0 && System.currentTimeMillis() > deadline;
+    }
+
+    /**
+     * Count a request that was dropped because its deadline passed
+     */
+    public static void recordDropped() {
+        droppedLate.incrementAndGet();
+    }
+
+    /**
+     * Get the number of requests dropped because their deadline passed
+     *
+     * @return Dropped request count since plugin start
+     */
+    public static long getDroppedCount() {
+        return droppedLate.get();
+    }
+}
@@ -0,0 +1,133 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RPC Metrics - latency histograms and counters per action, both directions
+ * Outbound: round-trip time of sendRpcRequestPacket calls (e.g. auth).
+ * Inbound: time queued for the main thread and time executing.
+ *
+ * Recording only allocates the first time an action is seen; after that it is
+ * a map lookup plus atomic increments. All durations are in microseconds.
+ */
+public final class RpcMetrics {
+    private static final Map<String, ActionMetrics> actions = new ConcurrentHashMap<>();
+
+    private RpcMetrics() {
+    }
+
+    /**
+     * Metrics for one action
+     */
+    public static class ActionMetrics {
+        final LatencyHistogram outboundRtt = new LatencyHistogram();
+        final AtomicInteger outboundInFlight = new AtomicInteger();
+        final AtomicLong outboundTimeouts = new AtomicLong();
+        final AtomicLong outboundErrors = new AtomicLong();
+
+        final LatencyHistogram inboundQueueWait = new LatencyHistogram();
+        final LatencyHistogram inboundExecute = new LatencyHistogram();
+        final AtomicInteger inboundInFlight = new AtomicInteger();
+        final AtomicLong inboundErrors = new AtomicLong();
+
+        JsonObject toJson() {
+            JsonObject outbound = new JsonObject();
+            outbound.addProperty("in_flight", outboundInFlight.get());
+            outbound.addProperty("timeouts", outboundTimeouts.get());
+            outbound.addProperty("errors", outboundErrors.get());
+            outbound.add("rtt_us", outboundRtt.toJson());
+
+            JsonObject inbound = new JsonObject();
+            inbound.addProperty("in_flight", inboundInFlight.get());
+            inbound.addProperty("errors", inboundErrors.get());
+            inbound.add("queue_wait_us", inboundQueueWait.toJson());
+            inbound.add("execute_us", inboundExecute.toJson());
+
+            JsonObject json = new JsonObject();
+            json.add("outbound", outbound);
+            json.add("inbound", inbound);
+            return json;
+        }
+    }
+
+    /**
+     * Get (or create) the metrics for an action
+     *
+     * @param action RPC action
+     * @return ActionMetrics instance
+     */
+    public static ActionMetrics forAction(String action) {
+        ActionMetrics metrics = actions.get(action);
+        if (metrics == null) {
+            metrics = actions.computeIfAbsent(action, a -> new ActionMetrics());
+        }
+        return metrics;
+    }
+
+    // ============================================================================
+    // OUTBOUND (plugin -> backend)
+    // ============================================================================
+
+    public static void outboundStarted(String action) {
+        forAction(action).outboundInFlight.incrementAndGet();
+    }
+
+    public static void outboundCompleted(String action, long startNanos) {
+        ActionMetrics metrics = forAction(action);
+        metrics.outboundInFlight.decrementAndGet();
+        metrics.outboundRtt.record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    public static void outboundTimedOut(String action) {
+        ActionMetrics metrics = forAction(action);
+        metrics.outboundInFlight.decrementAndGet();
+        metrics.outboundTimeouts.incrementAndGet();
+    }
+
+    public static void outboundFailed(String action) {
+        ActionMetrics metrics = forAction(action);
+        metrics.outboundInFlight.decrementAndGet();
+        metrics.outboundErrors.incrementAndGet();
+    }
+
+    // ============================================================================
+    // INBOUND (backend -> plugin)
+    // ============================================================================
+
+    public static void inboundAdmitted(String action) {
+        forAction(action).inboundInFlight.incrementAndGet();
+    }
+
+    public static void inboundQueueWait(String action, long queuedAtNanos, long startedAtNanos) {
+        forAction(action).inboundQueueWait.record((startedAtNanos - queuedAtNanos) / 1000);
+    }
+
+    public static void inboundFinished(String action, long executeNanos) {
+        ActionMetrics metrics = forAction(action);
+        metrics.inboundInFlight.decrementAndGet();
+        metrics.inboundExecute.record(executeNanos / 1000);
+    }
+
+    public static void inboundError(String action) {
+        forAction(action).inboundErrors.incrementAndGet();
+    }
+
+    /**
+     * Get metrics for all actions
+     *
+     * @return JsonObject keyed by action
+     */
+    public static JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, ActionMetrics> entry : actions.entrySet()) {
+            json.add(entry.getKey(), entry.getValue().toJson());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,21 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+
+/**
+ * RPC Request Handler - handles one inbound RPC request on the main thread
+ * Returns the response packet instead of sending it, so the same handler can
+ * answer a single request or one item of a batch.
+ */
+@FunctionalInterface
+public interface RpcRequestHandler {
+
+    /**
+     * Handle a request
+     *
+     * @param request RPC request packet
+     * @return Response packet (RpcErrorPacket on failure)
+     * @throws Exception if handling fails unexpectedly
+     */
+    Packet handle(Packet request) throws Exception;
+}
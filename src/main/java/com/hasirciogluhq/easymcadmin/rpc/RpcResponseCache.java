@@ -0,0 +1,220 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RPC Response Cache - makes retried inbound RPCs idempotent
+ * Requests are keyed by metadata.idempotency_key, or by the request packet ID
+ * when no key is given. A retry of a request that is still executing attaches
+ * to its pending result; a retry of a completed request gets the cached
+ * response without running the handler again.
+ *
+ * Bounded by entry count and estimated size; completed entries expire after
+ * the TTL. Transient rejections (deadline, admission limits) are not cached.
+ */
+public class RpcResponseCache {
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    // Insertion order doubles as age order for eviction
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long totalBytes = 0L;
+
+    private long hits = 0L;
+    private long attached = 0L;
+    private long misses = 0L;
+    private long evictions = 0L;
+
+    private static class Entry {
+        final String ownerId;
+        final CompletableFuture<Packet> response = new CompletableFuture<>();
+        long expiresAtNanos = Long.MAX_VALUE;
+        long sizeBytes = 0L;
+
+        Entry(String ownerId) {
+            this.ownerId = ownerId;
+        }
+    }
+
+    /**
+     * Create a new response cache
+     *
+     * @param enabled    Whether responses are cached at all
+     * @param maxEntries Max cached requests (pending and completed)
+     * @param maxBytes   Max estimated size of completed responses
+     * @param ttlSeconds How long completed responses are kept
+     */
+    public RpcResponseCache(boolean enabled, int maxEntries, long maxBytes, long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(0L, maxBytes);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, ttlSeconds));
+    }
+
+    /**
+     * Look up a request before executing it
+     * Returns null when the caller owns the request and must execute it, then
+     * call complete(). Otherwise returns a future with the response of the
+     * original request (already done for a cache hit).
+     *
+     * @param request RPC request packet
+     * @return null to execute, or the pending/cached response
+     */
+    public synchronized CompletableFuture<Packet> begin(Packet request) {
+        if (!enabled) {
+            return null;
+        }
+
+        String key = keyOf(request);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response.isDone() && System.nanoTime() > entry.expiresAtNanos) {
+            remove(key, entry);
+            entry = null;
+        }
+
+        if (entry != null) {
+            if (entry.response.isDone()) {
+                hits++;
+            } else {
+                attached++;
+            }
+            return entry.response;
+        }
+
+        misses++;
+        entries.put(key, new Entry(request.getPacketId()));
+        evictOverflow();
+        return null;
+    }
+
+    /**
+     * Store the response of an executed request and wake attached retries
+     * No-op for requests that were not registered with begin().
+     *
+     * @param request      RPC request packet
+     * @param response     Response sent for it
+     * @param encodedBytes Size of the response as sent, 0 if it was not sent
+     */
+    public void complete(Packet request, Packet response, int encodedBytes) {
+        Entry entry;
+        synchronized (this) {
+            if (!enabled) {
+                return;
+            }
+            String key = keyOf(request);
+            entry = entries.get(key);
+            if (entry == null || entry.response.isDone() || !entry.ownerId.equals(request.getPacketId())) {
+                return;
+            }
+
+            if (isTransient(response)) {
+                // Let the next retry execute for real
+                entries.remove(key);
+            } else {
+                entry.expiresAtNanos = System.nanoTime() + ttlNanos;
+                entry.sizeBytes = estimateSize(key, encodedBytes);
+                totalBytes += entry.sizeBytes;
+                evictOverflow();
+            }
+        }
+        // Attached retries are answered outside the lock
+        entry.response.complete(response);
+    }
+
+    /**
+     * Drop all entries (e.g. when a new backend session starts)
+     * Pending entries are kept; their owners are still executing.
+     */
+    public synchronized void clear() {
+        entries.values().removeIf(entry -> {
+            if (entry.response.isDone()) {
+                totalBytes -= entry.sizeBytes;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Get cache statistics
+     *
+     * @return JsonObject with entries, bytes, hits, attached, misses, hit_rate, evictions
+     */
+    public synchronized JsonObject toJson() {
+        long lookups = hits + attached + misses;
+
+        JsonObject json = new JsonObject();
+        json.addProperty("enabled", enabled);
+        json.addProperty("entries", entries.size());
+        json.addProperty("bytes", totalBytes);
+        json.addProperty("hits", hits);
+        json.addProperty("attached", attached);
+        json.addProperty("misses", misses);
+        json.addProperty("hit_rate", lookups > 0 ? (double) (hits + attached) / lookups : 0.0);
+        json.addProperty("evictions", evictions);
+        return json;
+    }
+
+    /**
+     * Drop expired responses, then the oldest completed ones while over a bound
+     */
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // Pending entries are never evicted; their owner still has to complete them
+            if (!entry.response.isDone()) {
+                continue;
+            }
+            boolean expired = now > entry.expiresAtNanos;
+            if (!expired && entries.size() <= maxEntries && totalBytes <= maxBytes) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= entry.sizeBytes;
+            if (!expired) {
+                evictions++;
+            }
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        totalBytes -= entry.sizeBytes;
+    }
+
+    private static String keyOf(Packet request) {
+        JsonObject metadata = request.getMetadata();
+        if (metadata != null && metadata.has("idempotency_key")) {
+            return request.getAction() + ":" + metadata.get("idempotency_key").getAsString();
+        }
+        return request.getAction() + "#" + request.getPacketId();
+    }
+
+    private static boolean isTransient(Packet response) {
+        JsonObject payload = response.getPayload();
+        if (!payload.has("error")) {
+            return false;
+        }
+        String error = payload.get("error").getAsString();
+        return RpcDeadline.ERROR_DEADLINE_EXCEEDED.equals(error)
+                || RpcAdmissionController.ERROR_TOO_MANY_IN_FLIGHT.equals(error)
+                || RpcAdmissionController.ERROR_RATE_LIMITED.equals(error);
+    }
+
+    private static long estimateSize(String key, int encodedBytes) {
+        // From the size the transport already encoded (no re-serialization on the
+        // main thread): UTF-16 chars roughly twice the UTF-8 bytes, plus a fixed
+        // cost for the entry and JSON tree
+        return 2L * (key.length() + encodedBytes) + 256L;
+    }
+}
@@ -0,0 +1,164 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.packets.GenericPacket;
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+import com.hasirciogluhq.easymcadmin.packets.PacketType;
+import com.hasirciogluhq.easymcadmin.transport.TransportManager;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * RPC Stream - one streaming response to an inbound RPC request
+ * The response is sent as N ordered part frames followed by a terminal frame,
+ * all carrying the request's rpc_id plus metadata stream=true, seq and final.
+ *
+ * Flow control is credit based: the request grants metadata.stream_window
+ * parts up front and the backend grants more with rpc.stream.ack events.
+ * Writers block while out of credits. rpc.stream.cancel stops the stream.
+ * Outstanding credits are capped at MAX_WINDOW, whatever the backend sends.
+ */
+public class RpcStream {
+    public static final int DEFAULT_WINDOW = 8;
+    public static final int MAX_WINDOW = 1024;
+    private static final long STALL_TIMEOUT_MS = 30000;
+
+    private final Packet request;
+    private final TransportManager transportManager;
+    private final Semaphore credits;
+    private volatile boolean cancelled = false;
+    private int seq = 0;
+
+    public RpcStream(Packet request, TransportManager transportManager) {
+        this.request = request;
+        this.transportManager = transportManager;
+        this.credits = new Semaphore(getInitialWindow(request));
+    }
+
+    /**
+     * Write one part, waiting for a credit if the window is exhausted
+     *
+     * @param part Part payload
+     * @throws InterruptedException  if the writer thread is interrupted
+     * @throws TimeoutException      if the backend grants no credit in time
+     * @throws CancellationException if the backend cancelled the stream
+     * @throws IOException           if the part could not be sent
+     */
+    public void write(JsonObject part) throws InterruptedException, TimeoutException, IOException {
+        checkCancelled();
+        if (!credits.tryAcquire(STALL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No stream credit for " + STALL_TIMEOUT_MS + "ms");
+        }
+        checkCancelled();
+        send(part, false);
+    }
+
+    /**
+     * Grant more credits (rpc.stream.ack)
+     * Ignored once cancelled; never raises the outstanding credits above
+     * MAX_WINDOW.
+     *
+     * @param count Number of additional parts the backend accepts
+     */
+    public synchronized void grant(int count) {
+        if (cancelled || count <= 0) {
+            return;
+        }
+        int granted = Math.min(count, MAX_WINDOW - credits.availablePermits());
+        if (granted > 0) {
+            credits.release(granted);
+        }
+    }
+
+    /**
+     * Cancel the stream (rpc.stream.cancel or disconnect)
+     * A writer blocked on credits wakes up and fails with CancellationException.
+     */
+    public synchronized void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        // One permit per blocked writer; a writer that is not blocked yet sees
+        // the flag before and after acquiring
+        credits.release(Math.max(1, credits.getQueueLength()));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get the stream ID (the request packet ID)
+     *
+     * @return Stream ID
+     */
+    public String getId() {
+        return request.getPacketId();
+    }
+
+    /**
+     * Get the request packet
+     *
+     * @return RPC request packet
+     */
+    public Packet getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the number of parts written so far
+     *
+     * @return Part count
+     */
+    public int getPartCount() {
+        return seq;
+    }
+
+    /**
+     * Send the terminal frame
+     * Terminal frames do not consume credits.
+     *
+     * @param payload Summary or error payload
+     * @throws IOException if the frame could not be sent
+     */
+    void close(JsonObject payload) throws IOException {
+        payload.addProperty("parts", seq);
+        send(payload, true);
+    }
+
+    private void send(JsonObject payload, boolean isFinal) throws IOException {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("action", request.getAction());
+        metadata.addProperty("stream", true);
+        metadata.addProperty("seq", seq);
+        metadata.addProperty("final", isFinal);
+        if (!isFinal) {
+            seq++;
+        }
+
+        Packet frame = new GenericPacket(UUID.randomUUID().toString(), PacketType.RPC, metadata, payload);
+        transportManager.sendRpcResponsePacket(request, frame);
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Stream cancelled");
+        }
+    }
+
+    private static int getInitialWindow(Packet request) {
+        try {
+            if (request.getMetadata().has("stream_window")) {
+                return Math.max(1, Math.min(MAX_WINDOW, request.getMetadata().get("stream_window").getAsInt()));
+            }
+        } catch (Exception ignored) {
+        }
+        return DEFAULT_WINDOW;
+    }
+}
@@ -0,0 +1,160 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.packets.Packet;
+import com.hasirciogluhq.easymcadmin.transport.TransportManager;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * RPC Stream Manager - runs streaming RPC producers and routes flow control
+ * Producers run on daemon worker threads. rpc.stream.ack and
+ * rpc.stream.cancel events from the backend are routed to the matching stream
+ * by stream_id (the request packet ID).
+ */
+public class RpcStreamManager {
+    private final TransportManager transportManager;
+    private final Map<String, RpcStream> streams = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public RpcStreamManager(TransportManager transportManager) {
+        this.transportManager = transportManager;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "EasyMcAdmin-RPC-Stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stream for a request and start its producer
+     *
+     * @param request  RPC request packet
+     * @param producer Producer writing the parts
+     * @param onClose  Called with the terminal payload once the stream is closed,
+     *                 may be null
+     */
+    public void open(Packet request, RpcStreamProducer producer, Consumer<JsonObject> onClose) {
+        RpcStream stream = new RpcStream(request, transportManager);
+        streams.put(stream.getId(), stream);
+
+        executor.execute(() -> {
+            JsonObject terminal;
+            try {
+                JsonObject summary = producer.produce(stream);
+                terminal = summary != null ? summary : new JsonObject();
+            } catch (CancellationException e) {
+                terminal = error("cancelled");
+            } catch (TimeoutException e) {
+                terminal = error("stream_stalled");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                terminal = error("cancelled");
+            } catch (Exception e) {
+                EasyMcAdmin.getInstance().getLogger()
+                        .warning("RPC stream " + request.getAction() + " failed: " + e.getMessage());
+                terminal = error("internal error");
+            }
+
+            streams.remove(stream.getId());
+            try {
+                stream.close(terminal);
+            } catch (Exception e) {
+                EasyMcAdmin.getInstance().getLogger()
+                        .warning("Failed to close RPC stream " + request.getAction() + ": " + e.getMessage());
+            } finally {
+                if (onClose != null) {
+                    onClose.accept(terminal);
+                }
+            }
+        });
+    }
+
+    /**
+     * Run blocking RPC work (not a stream) on a worker thread
+     * Keeps slow handlers such as server.jfr.start off the transport reader.
+     *
+     * @param work Work to run
+     */
+    public void execute(Runnable work) {
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException ignored) {
+            // Shut down: the plugin is disabling and the transport is going away
+        }
+    }
+
+    /**
+     * Handle rpc.stream.ack - grant credits to a stream
+     *
+     * @param packet Event packet with stream_id and credits
+     */
+    public void handleAck(Packet packet) {
+        RpcStream stream = getStream(packet);
+        if (stream != null && packet.getPayload().has("credits")) {
+            stream.grant(packet.getPayload().get("credits").getAsInt());
+        }
+    }
+
+    /**
+     * Handle rpc.stream.cancel - stop a stream
+     *
+     * @param packet Event packet with stream_id
+     */
+    public void handleCancel(Packet packet) {
+        RpcStream stream = getStream(packet);
+        if (stream != null) {
+            stream.cancel();
+        }
+    }
+
+    /**
+     * Cancel all open streams (e.g. on disconnect)
+     */
+    public void cancelAll() {
+        for (RpcStream stream : streams.values()) {
+            stream.cancel();
+        }
+    }
+
+    /**
+     * Get the number of open streams
+     *
+     * @return Open stream count
+     */
+    public int getOpenCount() {
+        return streams.size();
+    }
+
+    /**
+     * Cancel all streams and stop the worker threads
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private RpcStream getStream(Packet packet) {
+        if (!packet.getPayload().has("stream_id")) {
+            return null;
+        }
+        return streams.get(packet.getPayload().get("stream_id").getAsString());
+    }
+
+    private static JsonObject error(String error) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("error", error);
+        return payload;
+    }
+}
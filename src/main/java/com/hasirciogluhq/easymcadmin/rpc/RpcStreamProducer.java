@@ -0,0 +1,22 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+import com.google.gson.JsonObject;
+
+/**
+ * RPC Stream Producer - writes the parts of a streaming RPC response
+ * Runs on a stream worker thread, never on the main thread. Use
+ * MainThreadQueue#supply for Bukkit API access.
+ */
+@FunctionalInterface
+public interface RpcStreamProducer {
+
+    /**
+     * Produce all parts of the response
+     * The terminal frame is sent by the stream manager once this returns.
+     *
+     * @param stream Stream to write parts to
+     * @return Summary payload for the terminal frame, may be null
+     * @throws Exception if producing fails; the stream is closed with an error
+     */
+    JsonObject produce(RpcStream stream) throws Exception;
+}
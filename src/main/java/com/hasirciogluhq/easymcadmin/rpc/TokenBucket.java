@@ -0,0 +1,79 @@
+package com.hasirciogluhq.easymcadmin.rpc;
+
+/**
+ * Token bucket - refills at a fixed rate up to a burst capacity
+ * A rate of 0 or less disables the bucket (always allows).
+ */
+public class TokenBucket {
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+    private long lastUsed;
+
+    /**
+     * Create a new token bucket, initially full
+     *
+     * @param ratePerSecond Tokens added per second
+     * @param burst         Maximum number of tokens
+     */
+    public TokenBucket(double ratePerSecond, double burst) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.capacity = Math.max(1.0, burst);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+        this.lastUsed = this.lastRefill;
+    }
+
+    /**
+     * Try to take one token
+     *
+     * @return 0 if a token was taken, otherwise milliseconds until one is available
+     */
+    public synchronized long tryAcquire() {
+        if (ratePerNano <= 0) {
+            return 0L;
+        }
+
+        long now = System.nanoTime();
+        refill(now);
+        lastUsed = now;
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0L;
+        }
+
+        double missingNanos = (1.0 - tokens) / ratePerNano;
+        return Math.max(1L, (long) Math.ceil(missingNanos / 1_000_000.0));
+    }
+
+    /**
+     * Give back a token taken by tryAcquire()
+     * Used when a request passed this bucket but was rejected by a later one.
+     */
+    public synchronized void refund() {
+        if (ratePerNano <= 0) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + 1.0);
+    }
+
+    /**
+     * Check if the bucket has been idle long enough to be full again
+     *
+     * @param idleNanos Minimum idle time in nanoseconds
+     * @return true if the bucket was not used for at least idleNanos
+     */
+    public synchronized boolean isIdle(long idleNanos) {
+        return System.nanoTime() - lastUsed >= idleNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * ratePerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.hasirciogluhq.easymcadmin.scheduler;
+
+import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.jfr.QueueDrainEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Main Thread Queue - single plugin-owned queue for main-thread work
+ * Instead of one runTask per unit of work, everything is queued here and
+ * drained by one repeating task under a per-tick time budget. Work that does
+ * not fit in the budget carries over to the next tick, so the plugin's
+ * worst-case MSPT contribution is capped.
+ */
+public class MainThreadQueue {
+
+    /**
+     * Priority classes - higher priorities are drained first every tick
+     */
+    public enum Priority {
+        /**
+         * Inbound RPC handlers - someone is waiting for the response
+         */
+        HIGH,
+
+        /**
+         * Live state updates (inventory changes)
+         */
+        NORMAL,
+
+        /**
+         * Bulk sync work (player chunks, balance backfill)
+         */
+        LOW
+    }
+
+    private final EasyMcAdmin plugin;
+    private final long budgetNanos;
+    private final Queue<Runnable>[] queues;
+    // Work held back until the start of the next drain (see submitNextDrain)
+    private final Queue<Runnable>[] nextDrain;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong carriedOverTicks = new AtomicLong();
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private long tickDeadline;
+    private volatile boolean stopped = false;
+    private BukkitTask task;
+
+    /**
+     * Queued work with a hook for when it is dropped unrun
+     */
+    private static class CancellableWork implements Runnable {
+        final Runnable work;
+        final Runnable onCancel;
+
+        CancellableWork(Runnable work, Runnable onCancel) {
+            this.work = work;
+            this.onCancel = onCancel;
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+
+    /**
+     * Create a new main thread queue
+     *
+     * @param plugin   Plugin instance
+     * @param budgetMs Per-tick time budget in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public MainThreadQueue(EasyMcAdmin plugin, double budgetMs) {
+        this.plugin = plugin;
+        this.budgetNanos = (long) (Math.max(0.1, budgetMs) * 1_000_000L);
+        this.queues = new Queue[Priority.values().length];
+        this.nextDrain = new Queue[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+            nextDrain[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Start draining the queue every tick
+     */
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        stopped = false;
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    /**
+     * Stop draining and drop all queued work
+     * Dropped work is not run, but its cancel hook is (see
+     * {@link #submit(Priority, Runnable, Runnable)}), so futures from supply()
+     * fail and held resources are released. Work submitted after stop() is
+     * dropped the same way.
+     */
+    public void stop() {
+        stopped = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (int i = 0; i < queues.length; i++) {
+            cancelAll(queues[i]);
+            cancelAll(nextDrain[i]);
+        }
+    }
+
+    /**
+     * Queue work for the main thread
+     * Safe to call from any thread. Work runs on a later drain, at the earliest
+     * on the next tick when called from outside a drain.
+     *
+     * @param priority Priority class
+     * @param work     Work to run on the main thread
+     */
+    public void submit(Priority priority, Runnable work) {
+        offer(queues[priority.ordinal()], work);
+    }
+
+    /**
+     * Queue work for the main thread, no earlier than the next drain
+     * Unlike submit(), work queued from inside a drain does not run in the
+     * same drain, so bulk work can pace itself to one step per tick by
+     * queueing its next step from the current one.
+     *
+     * @param priority Priority class
+     * @param work     Work to run on the main thread
+     */
+    public void submitNextDrain(Priority priority, Runnable work) {
+        offer(nextDrain[priority.ordinal()], work);
+    }
+
+    private void offer(Queue<Runnable> queue, Runnable work) {
+        if (stopped) {
+            cancel(work);
+            return;
+        }
+        queue.offer(work);
+        depth.incrementAndGet();
+        // Lost a race with stop(): drop it the same way stop() would have
+        if (stopped && queue.remove(work)) {
+            depth.decrementAndGet();
+            cancel(work);
+        }
+    }
+
+    /**
+     * Queue work for the main thread with a cancel hook
+     * onCancel runs instead of work if the queue is stopped before the work
+     * gets to run, on the thread calling stop() or submit().
+     *
+     * @param priority Priority class
+     * @param work     Work to run on the main thread
+     * @param onCancel Called if the work is dropped unrun
+     */
+    public void submit(Priority priority, Runnable work, Runnable onCancel) {
+        submit(priority, new CancellableWork(work, onCancel));
+    }
+
+    /**
+     * Queue work for the main thread and get its result
+     * For worker threads (e.g. RPC streams) that need Bukkit API access.
+     * Cancelling the future before the work runs skips the work.
+     *
+     * @param priority Priority class
+     * @param work     Work to run on the main thread
+     * @return Future completed with the result on the main thread
+     */
+    public <T> CompletableFuture<T> supply(Priority priority, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        submit(priority, () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(work.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, () -> future.completeExceptionally(new CancellationException("main thread queue stopped")));
+        return future;
+    }
+
+    /**
+     * Check if the current drain still has budget left
+     * Long-running queued work (e.g. batches) can use this to stop early and
+     * re-submit the rest. Only meaningful on the main thread.
+     *
+     * @return true if there is time left in this tick's budget
+     */
+    public boolean hasTimeRemaining() {
+        return System.nanoTime() < tickDeadline;
+    }
+
+    /**
+     * Get the number of queued work items
+     *
+     * @return Queue depth
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Get the time spent draining in the last tick
+     *
+     * @return Nanoseconds used in the last tick
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Get the longest drain since the last call, then reset it
+     *
+     * @return Max nanoseconds used in a single tick
+     */
+    public long getMaxTickNanosAndReset() {
+        long max = maxTickNanos;
+        maxTickNanos = 0L;
+        return max;
+    }
+
+    /**
+     * Get the number of work items executed since start
+     *
+     * @return Executed work count
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * Get the number of ticks that ended with work carried over
+     *
+     * @return Carried-over tick count
+     */
+    public long getCarriedOverTicks() {
+        return carriedOverTicks.get();
+    }
+
+    /**
+     * Get the per-tick time budget
+     *
+     * @return Budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    private void cancelAll(Queue<Runnable> queue) {
+        Runnable work;
+        while ((work = queue.poll()) != null) {
+            depth.decrementAndGet();
+            cancel(work);
+        }
+    }
+
+    private void cancel(Runnable work) {
+        if (!(work instanceof CancellableWork)) {
+            return;
+        }
+        try {
+            ((CancellableWork) work).onCancel.run();
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.WARNING, "Cancelling queued main-thread work failed", t);
+        }
+    }
+
+    private void drain() {
+        QueueDrainEvent event = new QueueDrainEvent();
+        event.begin();
+        long start = System.nanoTime();
+        tickDeadline = start + budgetNanos;
+
+        for (int i = 0; i < queues.length; i++) {
+            Runnable work;
+            while ((work = nextDrain[i].poll()) != null) {
+                queues[i].offer(work);
+            }
+        }
+
+        int ran = 0;
+        for (Queue<Runnable> queue : queues) {
+            Runnable work;
+            while (System.nanoTime() < tickDeadline && (work = queue.poll()) != null) {
+                depth.decrementAndGet();
+                executed.incrementAndGet();
+                ran++;
+                try {
+                    work.run();
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.WARNING, "Queued main-thread work failed", t);
+                }
+            }
+        }
+
+        int remaining = depth.get();
+        if (remaining > 0) {
+            carriedOverTicks.incrementAndGet();
+        }
+
+        if (ran > 0 && event.shouldCommit()) {
+            event.executed = ran;
+            event.remaining = remaining;
+            event.carriedOver = remaining > 0;
+            event.commit();
+        }
+
+        long used = System.nanoTime() - start;
+        lastTickNanos = used;
+        if (used > maxTickNanos) {
+            maxTickNanos = used;
+        }
+    }
+}
@@ -11,8 +11,6 @@ import com.hasirciogluhq.easymcadmin.packets.economy.EconomyConfigPacket;
 import com.hasirciogluhq.easymcadmin.rpc.RpcHandler;
 import com.hasirciogluhq.easymcadmin.rpc.RpcStore;
 
-import org.bukkit.Bukkit;
-
 import java.io.IOException;
 import java.util.UUID;
 
@@ -66,7 +64,9 @@ public class TransportHandler implements TransportListener {
         GenericAuthPacketResponse authResponse = new GenericAuthPacketResponse(packet);
         if (authResponse.isSuccess()) {
             EasyMcAdmin.getInstance().setServerId(authResponse.getServerId());
-            onAuthSuccess();
+            boolean resumed = authResponse.isResumed() && manager.getResumeToken() != null;
+            manager.setResumeToken(authResponse.getResumeToken());
+            onAuthSuccess(resumed);
         } else {
             EasyMcAdmin.getInstance().getLogger()
                     .warning("Failed to authenticate: " + authResponse.getMessage());
@@ -74,51 +74,58 @@ public class TransportHandler implements TransportListener {
         }
     }
 
-    private void onAuthSuccess() {
+    private void onAuthSuccess(boolean resumed) {
         manager.setAuthenticated(true);
-        EasyMcAdmin.getInstance().getLogger().info("Transport authenticated");
-        EasyMcAdmin.getInstance().onTransportConnectedAndAuthenticated();
+        EasyMcAdmin.getInstance().getLogger().info(resumed ? "Transport authenticated (session resumed)"
+                : "Transport authenticated");
+        EasyMcAdmin.getInstance().onTransportConnectedAndAuthenticated(resumed);
     }
 
     private void onAuthFailure(String message) {
         manager.setAuthenticated(false);
+        manager.setResumeToken(null);
         EasyMcAdmin.getInstance().getLogger().warning("Failed to authenticate: " + message);
     }
 
     @Override
     public void onDisconnect() {
         manager.setAuthenticated(false);
+        if (EasyMcAdmin.getInstance().getRpcStreamManager() != null) {
+            EasyMcAdmin.getInstance().getRpcStreamManager().cancelAll();
+        }
         EasyMcAdmin.getInstance().getLogger().info("Transport disconnected");
     }
 
     @Override
     public void onConnect() {
         // Send auth RPC request, onTransportConnectedAndAuthenticated will be called
-        // after successful authentication in onAuthSuccess()
+        // after successful authentication in onAuthSuccess().
+        // Sent right away from the thread running connect() (an async task, see
+        // EasyMcAdmin.connectAsync, never the main thread); the reader thread
+        // starts after onConnect returns and picks up the response. A resumption token
+        // from the previous session lets the backend skip the full token check.
         Packet authPacket = new GenericAuthPacket(
-                EasyMcAdmin.getInstance().getConfig().getString("server.token", "1234567890"));
-
-        Bukkit.getServer().getScheduler().runTaskLater(EasyMcAdmin.getInstance(), () -> {
-            try {
-                // Send RPC request and wait for response
-                manager.sendRpcRequestPacket(authPacket)
-                        .thenAccept(responsePacket -> {
-                            // Handle auth response
-                            onAuthResponse(responsePacket);
-                        })
-                        .exceptionally(throwable -> {
-                            EasyMcAdmin.getInstance().getLogger()
-                                    .warning("Auth request failed: " + throwable.getMessage());
-                            onAuthFailure(throwable.getMessage());
-                            return null;
-                        });
-            } catch (Exception e) {
-                EasyMcAdmin.getInstance().getLogger()
-                        .warning("Error while sending auth packet: " + e.getMessage());
-                onAuthFailure(e.getMessage());
-            }
-        }, 6L);
-
+                EasyMcAdmin.getInstance().getConfig().getString("server.token", "1234567890"),
+                manager.getResumeToken());
+
+        try {
+            // Send RPC request and wait for response
+            manager.sendRpcRequestPacket(authPacket)
+                    .thenAccept(responsePacket -> {
+                        // Handle auth response
+                        onAuthResponse(responsePacket);
+                    })
+                    .exceptionally(throwable -> {
+                        EasyMcAdmin.getInstance().getLogger()
+                                .warning("Auth request failed: " + throwable.getMessage());
+                        onAuthFailure(throwable.getMessage());
+                        return null;
+                    });
+        } catch (Exception e) {
+            EasyMcAdmin.getInstance().getLogger()
+                    .warning("Error while sending auth packet: " + e.getMessage());
+            onAuthFailure(e.getMessage());
+        }
     }
 
     @Override
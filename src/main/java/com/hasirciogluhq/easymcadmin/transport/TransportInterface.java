@@ -9,7 +9,13 @@ public interface TransportInterface {
 
     boolean isConnected();
 
-    void sendPacket(Packet packet);
+    /**
+     * Send a packet
+     *
+     * @param packet Packet to send
+     * @return Encoded size in bytes, or 0 if the packet was not sent
+     */
+    int sendPacket(Packet packet);
 
     void setTransportListener(TransportListener transportListener);
 }
@@ -5,13 +5,16 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import com.hasirciogluhq.easymcadmin.jfr.RpcEvent;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.rpc.RpcHandler;
+import com.hasirciogluhq.easymcadmin.rpc.RpcMetrics;
 import com.hasirciogluhq.easymcadmin.rpc.RpcStore;
 
 public class TransportManager {
     private final TransportInterface transport;
     private boolean isAuthenticated = false;
+    private volatile String resumeToken;
 
     public TransportManager(TransportInterface transport) {
         this.transport = transport;
@@ -30,19 +33,26 @@ public class TransportManager {
         return transport.isConnected();
     }
 
-    public void sendPacket(Packet packet) throws IOException {
+    /**
+     * Send a packet
+     *
+     * @param packet Packet to send
+     * @return Encoded size in bytes, or 0 if the packet was not sent
+     * @throws IOException if sending fails
+     */
+    public int sendPacket(Packet packet) throws IOException {
         // Only allow auth packets if not authenticated
         if (!isAuthenticated() && !packet.isAuthPacket()) {
-            return;
+            return 0;
         }
 
         // Don't allow auth packets if already authenticated
         if (isAuthenticated() && packet.isAuthPacket()) {
-            return;
+            return 0;
         }
 
         try {
-            transport.sendPacket(packet);
+            return transport.sendPacket(packet);
         } catch (Exception e) {
             if (e instanceof IOException) {
                 throw (IOException) e;
@@ -63,6 +73,20 @@ public class TransportManager {
         this.isAuthenticated = isAuthenticated;
     }
 
+    /**
+     * Get the session resumption token issued at the last successful auth
+     * Kept across reconnects (not across restarts) so the next auth can resume.
+     *
+     * @return Resumption token, or null
+     */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public void setResumeToken(String resumeToken) {
+        this.resumeToken = resumeToken;
+    }
+
     /**
      * Send RPC request packet and wait for response
      * Similar to Go backend's SendRpcRequestPacket
@@ -72,6 +96,10 @@ public class TransportManager {
      */
     public CompletableFuture<Packet> sendRpcRequestPacket(Packet packet) {
         CompletableFuture<Packet> future = new CompletableFuture<>();
+        String action = packet.getAction();
+        long startNanos = System.nanoTime();
+        RpcMetrics.outboundStarted(action);
+        RpcEvent event = RpcEvent.start(RpcEvent.OUTBOUND, null, action);
         
         // Register handler in RPC store
         RpcStore rpcStore = RpcStore.getRpcStore();
@@ -89,6 +117,9 @@ public class TransportManager {
             sendPacket(packet);
         } catch (IOException e) {
             rpcStore.removeHandler(packet);
+            RpcMetrics.outboundFailed(action);
+            event.outcome = "error";
+            event.commit();
             future.completeExceptionally(e);
             return future;
         }
@@ -96,9 +127,18 @@ public class TransportManager {
         // Set timeout
         future.orTimeout(10, TimeUnit.SECONDS).whenComplete((result, throwable) -> {
             if (throwable instanceof TimeoutException) {
+                RpcMetrics.outboundTimedOut(action);
                 rpcStore.removeHandler(packet);
                 future.completeExceptionally(new TimeoutException("RPC request timed out"));
+                event.outcome = "timeout";
+            } else if (throwable == null) {
+                RpcMetrics.outboundCompleted(action, startNanos);
+                event.outcome = "ok";
+            } else {
+                RpcMetrics.outboundFailed(action);
+                event.outcome = "error";
             }
+            event.commit();
         });
 
         return future;
@@ -110,11 +150,12 @@ public class TransportManager {
      * 
      * @param requestPacket Original request packet
      * @param responsePacket Response packet to send
+     * @return Encoded size in bytes, or 0 if the packet was not sent
      * @throws IOException if sending fails
      */
-    public void sendRpcResponsePacket(Packet requestPacket, Packet responsePacket) throws IOException {
+    public int sendRpcResponsePacket(Packet requestPacket, Packet responsePacket) throws IOException {
         // Set RPC ID in response packet metadata
         responsePacket.getMetadata().addProperty("rpc_id", requestPacket.getPacketId());
-        sendPacket(responsePacket);
+        return sendPacket(responsePacket);
     }
 }
@@ -12,6 +12,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 import com.google.gson.Gson;
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.jfr.PacketSendEvent;
 import com.hasirciogluhq.easymcadmin.packets.GenericPacket;
 import com.hasirciogluhq.easymcadmin.packets.Packet;
 import com.hasirciogluhq.easymcadmin.transport.TransportInterface;
@@ -21,7 +22,7 @@ public class TcpTransport implements TransportInterface {
     private Socket socket;
     private String host;
     private int port;
-    private boolean isConnected = false;
+    private volatile boolean isConnected = false;
     private boolean wasConnected = false;
     private EasyMcAdmin plugin;
     private Thread connectionThread;
@@ -30,6 +31,7 @@ public class TcpTransport implements TransportInterface {
     private DataOutputStream dataOutputStream;
     private BlockingQueue<Packet> packetQueue;
     private Gson gson;
+    private final Object writeLock = new Object();
 
     public TcpTransport(EasyMcAdmin plugin, String host, int port) {
         this.plugin = plugin;
@@ -194,25 +196,43 @@ public class TcpTransport implements TransportInterface {
         return isConnected && socket != null && socket.isConnected() && !socket.isClosed();
     }
 
-    public void sendPacket(Packet packet) {
+    public int sendPacket(Packet packet) {
         if (!isConnected() || dataOutputStream == null) {
             if (transportListener != null) {
                 transportListener.onError(new IOException("Cannot send packet: not connected"));
             }
-            return;
+            return 0;
         }
 
+        // JFR: spans encoding, the write lock and the write
+        PacketSendEvent event = new PacketSendEvent();
+        event.begin();
+        long encodeStart = event.isEnabled() ? System.nanoTime() : 0L;
         try {
             // Serialize packet to JSON
             String jsonString = gson.toJson(packet.toJson());
             byte[] jsonBytes = jsonString.getBytes(StandardCharsets.UTF_8);
+            if (encodeStart != 0L) {
+                event.encodeTime = System.nanoTime() - encodeStart;
+            }
+
+            // Packets are sent from several threads (main, logging, RPC streams),
+            // so each frame is written under a lock to keep frames intact
+            synchronized (writeLock) {
+                // Write packet length (4 bytes - int)
+                dataOutputStream.writeInt(jsonBytes.length);
 
-            // Write packet length (4 bytes - int)
-            dataOutputStream.writeInt(jsonBytes.length);
+                // Write packet data
+                dataOutputStream.write(jsonBytes);
+                dataOutputStream.flush();
+            }
 
-            // Write packet data
-            dataOutputStream.write(jsonBytes);
-            dataOutputStream.flush();
+            if (event.shouldCommit()) {
+                event.action = packet.getAction();
+                event.bytes = jsonBytes.length;
+                event.commit();
+            }
+            return jsonBytes.length;
 
         } catch (IOException e) {
             isConnected = false;
@@ -224,6 +244,7 @@ public class TcpTransport implements TransportInterface {
                 transportListener.onError(e);
             }
         }
+        return 0;
     }
 
     private void onDisconnected() {
@@ -1,64 +1,62 @@
 package com.hasirciogluhq.easymcadmin.util;
 
-import com.hasirciogluhq.easymcadmin.packets.ConsoleOutputPacket;
-import com.hasirciogluhq.easymcadmin.transport.TransportManager;
+import com.hasirciogluhq.easymcadmin.console.ConsolePipeline;
 import com.hasirciogluhq.easymcadmin.EasyMcAdmin;
+import com.hasirciogluhq.easymcadmin.metrics.OverheadMonitor;
 
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.appender.AbstractAppender;
 import org.apache.logging.log4j.core.config.Property;
 
+/**
+ * Log4j2 appender feeding the console pipeline
+ * Runs on whatever thread logged the line, so it only copies the essentials
+ * into the pipeline's ring buffer; filtering, history, batching and sending
+ * happen on the pipeline's consumer thread.
+ */
 public class ConsoleOutputHandler extends AbstractAppender {
 
-    private final TransportManager transportManager;
-    private static boolean sending = false;
+    private final ConsolePipeline pipeline;
+    private final OverheadMonitor overhead;
 
-    public ConsoleOutputHandler(EasyMcAdmin plugin, TransportManager transportManager) {
+    public ConsoleOutputHandler(EasyMcAdmin plugin, ConsolePipeline pipeline) {
         super("EasyMcAdminAppender", null, null, false, Property.EMPTY_ARRAY);
-        this.transportManager = transportManager;
+        this.pipeline = pipeline;
+        this.overhead = plugin.getOverheadMonitor();
     }
 
     @Override
     public void append(LogEvent event) {
-        if (!transportManager.isConnected() || !transportManager.isAuthenticated())
+        // The pipeline's own logging must not feed back into it
+        if (pipeline.isConsumerThread())
             return;
 
-        if (sending)
-            return; // Recursion guard
-        sending = true;
+        // Subscription level/logger filters run on the raw event. Lines nobody
+        // subscribed to are still captured for the history (also while
+        // disconnected), unless history is disabled.
+        boolean live = pipeline.getSubscriptions().acceptsRaw(event.getLevel().intLevel(), event.getLoggerName());
+        if (!live && !pipeline.isHistoryEnabled())
+            return;
 
+        // Only counted when the line was logged on the main thread
+        long start = overhead.begin();
         try {
             String message = event.getMessage().getFormattedMessage();
-            if (message == null || message.trim().isEmpty())
+            if (message == null || message.isEmpty())
                 return;
 
-            String level = event.getLevel().name().toLowerCase();
-
-            ConsoleOutputPacket packet = new ConsoleOutputPacket(
+            pipeline.publish(
+                    event.getTimeMillis(),
+                    event.getLevel().name(),
+                    event.getLoggerName(),
+                    event.getThreadName(),
                     message,
-                    level,
-                    "console",
-                    detectType(message));
-
-            transportManager.sendPacket(packet);
+                    live);
 
         } catch (Throwable ignored) {
 
         } finally {
-            sending = false;
+            overhead.end(OverheadMonitor.Feature.CONSOLE, start);
         }
     }
-
-    private String detectType(String msg) {
-        String m = msg.toLowerCase();
-
-        if (m.contains("exception") || m.contains("error"))
-            return "error";
-        if (m.startsWith("> "))
-            return "command";
-        if (m.contains("starting") || m.contains("done") || m.contains("stopping"))
-            return "server";
-
-        return "log";
-    }
 }
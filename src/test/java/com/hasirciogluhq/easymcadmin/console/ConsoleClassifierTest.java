@@ -0,0 +1,58 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ConsoleClassifierTest {
+
+    @Test
+    void defaultRulesMatchTheOldChainOnTheCorpus() {
+        ConsoleClassifier classifier = ConsoleClassifier.defaults();
+        List<String> lines = ConsoleCorpus.lines();
+        Set<String> types = new HashSet<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String expected = ConsoleCorpus.detectType(line);
+            assertEquals(expected, classifier.classify(line), "line " + (i + 1) + ": " + line);
+            types.add(expected);
+        }
+
+        // The corpus exercises every rule, not just the default type
+        assertEquals(Set.of("error", "command", "server", "log"), types);
+    }
+
+    @Test
+    void matchesIgnoreCaseAndOverlappingPatterns() {
+        ConsoleClassifier classifier = ConsoleClassifier.defaults();
+
+        assertEquals("error", classifier.classify("[ShopKeeper] ERROR: Could not connect"));
+        assertEquals("error", classifier.classify("java.lang.IllegalStateException: closed"));
+        // "done" is found after the failed "doni" prefix
+        assertEquals("server", classifier.classify("Donidone"));
+        // Rule order wins over position in the line
+        assertEquals("error", classifier.classify("Done, but with an error"));
+        assertEquals("command", classifier.classify("> list"));
+        assertEquals("log", classifier.classify(" > list"));
+        assertEquals("log", classifier.classify(""));
+    }
+
+    @Test
+    void firstRuleWinsForCustomRules() {
+        ConsoleClassifier classifier = new ConsoleClassifier(List.of(
+                new ConsoleClassifier.Rule("chat", List.of(), List.of("<")),
+                new ConsoleClassifier.Rule("lag", List.of("can't keep up", "lag spike"), List.of())),
+                "other");
+
+        assertEquals("chat", classifier.classify("<Steve> lag spike again"));
+        assertEquals("lag", classifier.classify("Can't keep up! Is the server overloaded?"));
+        assertEquals("other", classifier.classify("Saved the game"));
+        assertTrue(ConsoleCorpus.lines().stream().anyMatch(line -> classifier.classify(line).equals("chat")));
+    }
+}
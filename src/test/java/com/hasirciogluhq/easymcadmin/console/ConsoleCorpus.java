@@ -0,0 +1,63 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Console corpus - a recorded server session (startup, chat, commands,
+ * plugin stack traces, shutdown) shared by the classifier test and benchmark
+ */
+final class ConsoleCorpus {
+    private static final String RESOURCE = "/console/corpus.log";
+
+    private ConsoleCorpus() {
+    }
+
+    /**
+     * Load the corpus
+     *
+     * @return Console lines in log order
+     */
+    static List<String> lines() {
+        InputStream in = ConsoleCorpus.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " not found");
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    /**
+     * The contains/startsWith chain ConsolePipeline used before
+     * ConsoleClassifier, kept as the reference for the default rules
+     *
+     * @param msg Console line
+     * @return Line type
+     */
+    static String detectType(String msg) {
+        String m = msg.toLowerCase();
+
+        if (m.contains("exception") || m.contains("error"))
+            return "error";
+        if (m.startsWith("> "))
+            return "command";
+        if (m.contains("starting") || m.contains("done") || m.contains("stopping"))
+            return "server";
+
+        return "log";
+    }
+}
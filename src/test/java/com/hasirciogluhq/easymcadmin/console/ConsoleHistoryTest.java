@@ -0,0 +1,156 @@
+package com.hasirciogluhq.easymcadmin.console;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ConsoleHistoryTest {
+
+    @Test
+    void pagesForwardWithoutGapsAfterBufferWrap() {
+        // 4 KiB buffer, 1024 index slots: the byte budget is what evicts
+        ConsoleHistory history = new ConsoleHistory(4096, 1024);
+        appendRecords(history, 0, 500);
+
+        assertTrue(history.getFirstOffset() > 0, "buffer should have wrapped");
+        assertEquals(500L, history.getNextOffset());
+        assertEquals(retained(history), pageForward(history, -1L, 7));
+    }
+
+    @Test
+    void pagesForwardWithoutGapsAfterIndexWrap() {
+        // 1 MiB buffer, 16 index slots: the index is what evicts
+        ConsoleHistory history = new ConsoleHistory(1024 * 1024, 16);
+        appendRecords(history, 0, 100);
+
+        assertEquals(84L, history.getFirstOffset());
+        assertEquals(16L, history.getRecordCount());
+        assertEquals(retained(history), pageForward(history, -1L, 5));
+    }
+
+    @Test
+    void pagesBackwardWithoutGapsOrDuplicates() {
+        ConsoleHistory history = new ConsoleHistory(4096, 64);
+        appendRecords(history, 0, 300);
+
+        List<Long> offsets = new ArrayList<>();
+        Long before = history.getNextOffset();
+        while (true) {
+            ConsoleHistory.Page page = history.read(-1L, before, 6);
+            if (page.getRecords().isEmpty()) {
+                break;
+            }
+            List<Long> pageOffsets = offsetsOf(page);
+            assertEquals(before - 1, (long) pageOffsets.get(pageOffsets.size() - 1));
+            offsets.addAll(0, pageOffsets);
+            before = page.getStartOffset();
+        }
+
+        assertEquals(retained(history), offsets);
+    }
+
+    @Test
+    void reportsEvictionWhilePaging() {
+        ConsoleHistory history = new ConsoleHistory(4096, 1024);
+        appendRecords(history, 0, 40);
+
+        long after = -1L;
+        long next = 40;
+        List<Long> seen = new ArrayList<>();
+        for (int round = 0; round < 50; round++) {
+            ConsoleHistory.Page page = history.read(after, null, 4);
+            if (page.getStartOffset() != after + 1) {
+                // Records were evicted between reads; the page says so by
+                // starting at the oldest kept offset, never in the middle
+                assertEquals(page.getFirstOffset(), page.getStartOffset());
+                assertTrue(page.getStartOffset() > after + 1);
+            }
+            for (long offset : offsetsOf(page)) {
+                assertTrue(offset > after, "duplicate " + offset);
+                seen.add(offset);
+                after = offset;
+            }
+            appendRecords(history, next, 25);
+            next += 25;
+        }
+
+        List<Long> sorted = new ArrayList<>(seen);
+        Collections.sort(sorted);
+        assertEquals(sorted, seen);
+    }
+
+    @Test
+    void oversizedRecordConsumesItsOffset() {
+        ConsoleHistory history = new ConsoleHistory(4096, 64);
+        appendRecords(history, 0, 5);
+
+        assertEquals(5L, history.append(new byte[8192]));
+        assertEquals(6L, history.getFirstOffset());
+        appendRecords(history, 6, 3);
+
+        assertEquals(List.of(6L, 7L, 8L), pageForward(history, -1L, 2));
+    }
+
+    private static void appendRecords(ConsoleHistory history, long firstOffset, int count) {
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            assertEquals(offset, history.append(record(offset)));
+        }
+    }
+
+    /**
+     * Record whose content names its offset, 20-120 bytes long
+     */
+    private static byte[] record(long offset) {
+        StringBuilder builder = new StringBuilder().append(offset).append(':');
+        for (int i = 0; i < 20 + (offset * 37) % 100; i++) {
+            builder.append((char) ('a' + (offset + i) % 26));
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Long> pageForward(ConsoleHistory history, long after, int limit) {
+        List<Long> offsets = new ArrayList<>();
+        while (true) {
+            ConsoleHistory.Page page = history.read(after, null, limit);
+            if (page.getRecords().isEmpty()) {
+                return offsets;
+            }
+            assertEquals(after < page.getFirstOffset() ? page.getFirstOffset() : after + 1, page.getStartOffset());
+            List<Long> pageOffsets = offsetsOf(page);
+            offsets.addAll(pageOffsets);
+            after = pageOffsets.get(pageOffsets.size() - 1);
+        }
+    }
+
+    /**
+     * Offsets of a page's records, checking each record is intact and sits at
+     * its own offset
+     */
+    private static List<Long> offsetsOf(ConsoleHistory.Page page) {
+        List<Long> offsets = new ArrayList<>();
+        long expected = page.getStartOffset();
+        for (byte[] bytes : page.getRecords()) {
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            long offset = Long.parseLong(text.substring(0, text.indexOf(':')));
+            assertEquals(expected, offset);
+            assertEquals(new String(record(offset), StandardCharsets.UTF_8), text);
+            offsets.add(offset);
+            expected++;
+        }
+        return offsets;
+    }
+
+    private static List<Long> retained(ConsoleHistory history) {
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = history.getFirstOffset(); offset < history.getNextOffset(); offset++) {
+            offsets.add(offset);
+        }
+        return offsets;
+    }
+}
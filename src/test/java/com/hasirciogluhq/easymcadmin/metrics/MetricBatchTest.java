@@ -0,0 +1,155 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+
+class MetricBatchTest {
+
+    @Test
+    void roundTripsLongsIncludingExtremes() {
+        long[] values = { 0L, 1L, 127L, 128L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE, 0L, -300L };
+
+        assertArrayEquals(values, decode(MetricBatch.encode(values, values.length), values.length));
+    }
+
+    @Test
+    void roundTripsNegativeDeltas() {
+        MetricBatch batch = new MetricBatch();
+        long[] heap = { 4096L, 3900L, 3900L, 1200L, 5000L, -20L };
+        for (int i = 0; i < heap.length; i++) {
+            MetricBuffer row = new MetricBuffer();
+            row.putLong("heap", heap[i]);
+            batch.append(1_700_000_000_000L - i * 1000L, row);
+        }
+
+        JsonObject json = batch.encode();
+
+        assertEquals(heap.length, json.get("rows").getAsInt());
+        assertArrayEquals(heap, column(json, "heap"));
+        long[] timestamps = decode(json.get("timestamps").getAsString(), heap.length);
+        for (int i = 0; i < heap.length; i++) {
+            assertEquals(1_700_000_000_000L - i * 1000L, timestamps[i]);
+        }
+    }
+
+    @Test
+    void missingAndNonFiniteCellsRepeatThePreviousValue() {
+        MetricBatch batch = new MetricBatch();
+
+        MetricBuffer row = new MetricBuffer();
+        row.putDouble("mspt", Double.NaN);
+        batch.append(0L, row);
+
+        row.clear();
+        row.putDouble("mspt", 12.5);
+        row.putLong("players", 3L);
+        batch.append(1000L, row);
+
+        row.clear();
+        row.putDouble("mspt", Double.NaN);
+        batch.append(2000L, row);
+
+        row.clear();
+        row.putDouble("mspt", Double.POSITIVE_INFINITY);
+        row.putLong("players", 4L);
+        batch.append(3000L, row);
+
+        row.clear();
+        batch.append(4000L, row);
+
+        JsonObject json = batch.encode();
+        JsonObject mspt = json.getAsJsonObject("columns").getAsJsonObject("mspt");
+        JsonObject players = json.getAsJsonObject("columns").getAsJsonObject("players");
+
+        // A column that only had NaN so far has not started yet
+        assertEquals(1, mspt.get("first_row").getAsInt());
+        assertEquals(1, players.get("first_row").getAsInt());
+        assertArrayEquals(new long[] { 12500L, 12500L, 12500L, 12500L }, column(json, "mspt"));
+        assertArrayEquals(new long[] { 3L, 3L, 4L, 4L }, column(json, "players"));
+    }
+
+    @Test
+    void doublesRoundToTheNearestScaleStep() {
+        double[] values = { 0.001, -0.001, 0.0004, 0.0005, 0.0015, -0.0015, 19.999, 20.0, 123456789.123, -9.0E12 };
+        MetricBatch batch = new MetricBatch();
+        MetricBuffer row = new MetricBuffer();
+        for (int i = 0; i < values.length; i++) {
+            row.clear();
+            row.putDouble("value", values[i]);
+            batch.append(i, row);
+        }
+
+        JsonObject json = batch.encode();
+        JsonObject value = json.getAsJsonObject("columns").getAsJsonObject("value");
+        int scale = value.get("scale").getAsInt();
+        long[] decoded = column(json, "value");
+
+        assertEquals(1000, scale);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Math.round(values[i] * scale), decoded[i], "value " + values[i]);
+            assertEquals(values[i], (double) decoded[i] / scale, 0.5 / scale + Math.ulp(values[i]));
+        }
+        // Exactly representable steps survive unchanged
+        assertEquals(1L, decoded[0]);
+        assertEquals(-1L, decoded[1]);
+        assertEquals(19999L, decoded[6]);
+    }
+
+    @Test
+    void resetDropsColumns() {
+        MetricBatch batch = new MetricBatch();
+        MetricBuffer row = new MetricBuffer();
+        row.putLong("gone", 1L);
+        batch.append(0L, row);
+        batch.reset();
+
+        row.clear();
+        row.putLong("kept", 2L);
+        batch.append(1000L, row);
+        JsonObject json = batch.encode();
+
+        assertEquals(1, json.get("rows").getAsInt());
+        assertFalse(json.getAsJsonObject("columns").has("gone"));
+        assertArrayEquals(new long[] { 2L }, column(json, "kept"));
+    }
+
+    /**
+     * Values of a column from first_row to the last row
+     */
+    private static long[] column(JsonObject batch, String name) {
+        JsonObject column = batch.getAsJsonObject("columns").getAsJsonObject(name);
+        int count = batch.get("rows").getAsInt() - column.get("first_row").getAsInt();
+        return decode(column.get("data").getAsString(), count);
+    }
+
+    /**
+     * Reference decoder: Base64, zigzag varints, running sum of the deltas
+     */
+    private static long[] decode(String data, int count) {
+        byte[] bytes = Base64.getDecoder().decode(data);
+        long[] values = new long[count];
+        int position = 0;
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            long zigzag = 0L;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+        assertEquals(bytes.length, position, "trailing bytes");
+        return values;
+    }
+}
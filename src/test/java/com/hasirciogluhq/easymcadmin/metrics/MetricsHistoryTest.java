@@ -0,0 +1,154 @@
+package com.hasirciogluhq.easymcadmin.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+class MetricsHistoryTest {
+    // Start of an hour, in seconds
+    private static final long HOUR = 1_699_999_200L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsUpMinutesAndHoursAcrossGaps() throws Exception {
+        MetricsHistory history = new MetricsHistory(8, 6, 2, null);
+        long minute = HOUR + 600L;
+        for (int i = 0; i < 30; i++) {
+            record(history, minute + i, i + 1);
+        }
+        // Skip a minute, then go quiet for three hours
+        for (int i = 0; i < 10; i++) {
+            record(history, minute + 120L + i, 100 + i);
+        }
+        record(history, HOUR + 3 * 3600L + 5L, 7);
+
+        JsonObject minutes = history.read(MetricsHistory.Resolution.MINUTE, HOUR * 1000L,
+                (HOUR + 3600L) * 1000L, null, 100);
+        assertEquals(longs(minute * 1000L, (minute + 120L) * 1000L), longs(minutes.getAsJsonArray("timestamps")));
+        assertEquals(longs(30L, 10L), longs(minutes.getAsJsonArray("samples")));
+        JsonObject mspt = minutes.getAsJsonObject("series").getAsJsonObject("mspt");
+        assertEquals(1.0, mspt.getAsJsonArray("min").get(0).getAsDouble());
+        assertEquals(30.0, mspt.getAsJsonArray("max").get(0).getAsDouble());
+        assertEquals(15.5, mspt.getAsJsonArray("avg").get(0).getAsDouble(), 1e-9);
+        assertEquals(15.0, mspt.getAsJsonArray("p50").get(0).getAsDouble());
+        assertEquals(29.0, mspt.getAsJsonArray("p95").get(0).getAsDouble());
+        assertEquals(30.0, mspt.getAsJsonArray("p99").get(0).getAsDouble());
+        assertEquals(109.0, mspt.getAsJsonArray("max").get(1).getAsDouble());
+
+        JsonObject hours = history.read(MetricsHistory.Resolution.HOUR, HOUR * 1000L,
+                (HOUR + 4 * 3600L) * 1000L, null, 100);
+        // Only the hour with data; the quiet hours and the open one are absent
+        assertEquals(longs(HOUR * 1000L), longs(hours.getAsJsonArray("timestamps")));
+        assertEquals(longs(40L), longs(hours.getAsJsonArray("samples")));
+        JsonObject hourly = hours.getAsJsonObject("series").getAsJsonObject("mspt");
+        assertEquals(1.0, hourly.getAsJsonArray("min").get(0).getAsDouble());
+        assertEquals(109.0, hourly.getAsJsonArray("max").get(0).getAsDouble());
+    }
+
+    @Test
+    void pagesThroughNextFromWithoutGapsOrDuplicates() throws Exception {
+        MetricsHistory history = new MetricsHistory(8, 1, 1, null);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 == 1) {
+                continue; // Missing seconds are skipped, not counted against the limit
+            }
+            record(history, HOUR + i, i);
+            expected.add((HOUR + i) * 1000L);
+        }
+
+        List<Long> timestamps = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        long from = HOUR * 1000L;
+        int pages = 0;
+        while (true) {
+            JsonObject page = history.read(MetricsHistory.Resolution.SECOND, from, (HOUR + 100L) * 1000L,
+                    List.of("mspt"), 7);
+            timestamps.addAll(longs(page.getAsJsonArray("timestamps")));
+            values.addAll(longs(page.getAsJsonObject("series").getAsJsonArray("mspt")));
+            pages++;
+            if (!page.has("next_from")) {
+                break;
+            }
+            assertEquals(7, page.getAsJsonArray("timestamps").size());
+            from = page.get("next_from").getAsLong();
+        }
+
+        assertEquals(expected, timestamps);
+        for (int i = 0; i < timestamps.size(); i++) {
+            assertEquals(timestamps.get(i) / 1000L - HOUR, (long) values.get(i));
+        }
+        assertEquals((expected.size() + 6) / 7, pages);
+    }
+
+    @Test
+    void reopensTheSameFile() throws Exception {
+        File file = dir.resolve("history.bin").toFile();
+        MetricsHistory history = new MetricsHistory(8, 1, 1, file);
+        for (int i = 0; i < 20; i++) {
+            record(history, HOUR + i, i);
+        }
+        history.close();
+
+        MetricsHistory reopened = new MetricsHistory(8, 1, 1, file);
+        JsonObject description = reopened.describe();
+        assertEquals((HOUR + 19L) * 1000L, description.get("newest").getAsLong());
+        assertTrue(description.get("persistent").getAsBoolean());
+        assertEquals(2, description.getAsJsonArray("series").size());
+
+        JsonObject seconds = reopened.read(MetricsHistory.Resolution.SECOND, HOUR * 1000L, (HOUR + 60L) * 1000L,
+                null, 100);
+        assertEquals(20, seconds.getAsJsonArray("timestamps").size());
+        assertEquals(19.0, seconds.getAsJsonObject("series").getAsJsonArray("mspt").get(19).getAsDouble());
+        assertEquals(3L, seconds.getAsJsonObject("series").getAsJsonArray("players").get(19).getAsLong());
+
+        // The minute closes after the restart and still sees the samples from before it
+        record(reopened, HOUR + 61L, 99);
+        JsonObject minutes = reopened.read(MetricsHistory.Resolution.MINUTE, HOUR * 1000L, (HOUR + 120L) * 1000L,
+                null, 100);
+        assertEquals(longs(20L), longs(minutes.getAsJsonArray("samples")));
+        reopened.close();
+
+        // A different layout starts over instead of misreading the file
+        MetricsHistory resized = new MetricsHistory(4, 1, 1, file);
+        assertEquals(0, resized.describe().getAsJsonArray("series").size());
+        assertFalse(resized.read(MetricsHistory.Resolution.SECOND, HOUR * 1000L, (HOUR + 60L) * 1000L, null, 100)
+                .getAsJsonArray("timestamps").size() > 0);
+        resized.close();
+    }
+
+    private static void record(MetricsHistory history, long second, double mspt) {
+        MetricBuffer row = new MetricBuffer();
+        row.putDouble("mspt", mspt);
+        row.putLong("players", 3L);
+        row.putString("motd", "not numeric");
+        history.record(second * 1000L + 250L, row);
+    }
+
+    private static List<Long> longs(JsonArray array) {
+        List<Long> values = new ArrayList<>();
+        array.forEach(element -> values.add(element.getAsLong()));
+        return values;
+    }
+
+    private static List<Long> longs(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}